@@ -0,0 +1,84 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DonorBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int donationHistorySize;
+
+    private Donor donor;
+    private Project project;
+    private Donation donation;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        List<Donation> donations = new ArrayList<>(donationHistorySize);
+        for (int i = 0; i < donationHistorySize; i++) {
+            donations.add(DonationBuilder.aDonation().
+                    withDonorNickname("benchmark_donor").
+                    withProjectName("project_" + (i % 100)).
+                    withAmount(Money.of(1 + i % 500)).
+                    withDate(LocalDate.now().minusDays(i % 365)).
+                    build());
+        }
+        donor = DonorBuilder.aDonorUser().
+                withNickname("benchmark_donor").
+                withMoney(Money.ofCents(Long.MAX_VALUE / 2)).
+                withDonations(donations).
+                build();
+        project = ProjectBuilder.aProject().
+                withName("benchmark_project").
+                withFactor(1_000_000).
+                withDurationInDays(10).
+                withLocation(LocationBuilder.aLocation().withPopulation(1_500).build()).
+                build();
+        donation = DonationBuilder.aDonation().
+                withDonorNickname("benchmark_donor").
+                withProjectName("benchmark_project").
+                withAmount(Money.of(1500)).
+                withDate(LocalDate.now()).
+                build();
+    }
+
+    // The new donation is dropped again so the history keeps the size under measurement
+    @Benchmark
+    public Donation donate() throws InvalidDonationException {
+        Donation newDonation = donor.donate(Money.of(1), "benchmark", project, false);
+        donor.getDonations().remove(donor.getDonations().size() - 1);
+        project.getDonations().remove(project.getDonations().size() - 1);
+        return newDonation;
+    }
+
+    @Benchmark
+    public int calculatePoints() {
+        return donation.calculatePoints(donor, project);
+    }
+
+    @Benchmark
+    public Optional<Donation> lastDonation() {
+        return donor.lastDonation();
+    }
+}
@@ -0,0 +1,63 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int donationHistorySize;
+
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        List<Donation> donations = new ArrayList<>(donationHistorySize);
+        for (int i = 0; i < donationHistorySize; i++) {
+            donations.add(DonationBuilder.aDonation().
+                    withDonorNickname("donor_" + (i % 1000)).
+                    withProjectName("benchmark_project").
+                    withAmount(Money.of(1 + i % 500)).
+                    withDate(LocalDate.now().minusDays(i % 365)).
+                    build());
+        }
+        project = ProjectBuilder.aProject().
+                withName("benchmark_project").
+                withFactor(1000).
+                withLocation(LocationBuilder.aLocation().withPopulation(100_000).build()).
+                withDonations(donations).
+                build();
+    }
+
+    @Benchmark
+    public Money totalAmountDonations() {
+        return project.totalAmountDonations();
+    }
+
+    @Benchmark
+    public boolean hasReachedGoal() {
+        return project.hasReachedGoal();
+    }
+
+    @Benchmark
+    public int numberOfDonors() {
+        return project.numberOfDonors();
+    }
+}
@@ -0,0 +1,55 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class CredentialServiceBenchmark {
+
+    private static final String PASSWORD = "456";
+
+    @Param({"4", "8", "10", "12"})
+    private int bcryptStrength;
+
+    private CredentialService credentialService;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        credentialService = new CredentialService();
+        setField("bcryptStrength", bcryptStrength);
+        setField("cacheMaximumSize", 10_000L);
+        setField("cacheTtlSeconds", 300L);
+        credentialService.start();
+        encodedPassword = credentialService.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean repeatedLogin() {
+        return credentialService.matches(PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean uncachedVerification() {
+        return credentialService.matches("wrong_" + PASSWORD, encodedPassword);
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = CredentialService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(credentialService, value);
+    }
+}
@@ -0,0 +1,139 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+class ArgumentRenderer {
+
+    static final String REDACTED = "******";
+    private static final String TRUNCATED = "...";
+
+    private final int maxLength;
+    private final Set<String> redactedNames;
+
+    private final ClassValue<Field[]> renderedFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field: current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    ArgumentRenderer(int maxLength, Set<String> redactedNames) {
+        this.maxLength = maxLength;
+        this.redactedNames = redactedNames;
+    }
+
+    String render(Parameter[] parameters, Object[] arguments) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < parameters.length && i < arguments.length; i++) {
+            if (i > 0) {
+                builder.append(" | ");
+            }
+            builder.append(parameters[i].getName()).append('=');
+            if (isRedacted(parameters[i].getName())) {
+                builder.append(REDACTED);
+            } else {
+                int start = builder.length();
+                renderArgument(builder, arguments[i]);
+                truncate(builder, start);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void renderArgument(StringBuilder builder, Object argument) {
+        if (isValue(argument)) {
+            builder.append(argument);
+        } else if (argument instanceof Collection) {
+            sized(builder, argument, ((Collection<?>) argument).size());
+        } else if (argument instanceof Map) {
+            sized(builder, argument, ((Map<?, ?>) argument).size());
+        } else if (argument.getClass().isArray()) {
+            sized(builder, argument, Array.getLength(argument));
+        } else {
+            renderFields(builder, argument);
+        }
+    }
+
+    private void renderFields(StringBuilder builder, Object argument) {
+        int start = builder.length();
+        builder.append(argument.getClass().getSimpleName()).append('{');
+        Field[] fields = renderedFields.get(argument.getClass());
+        for (int i = 0; i < fields.length && builder.length() - start <= maxLength; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(fields[i].getName()).append('=');
+            if (isRedacted(fields[i].getName())) {
+                builder.append(REDACTED);
+            } else {
+                renderField(builder, argument, fields[i]);
+            }
+        }
+        builder.append('}');
+    }
+
+    private void renderField(StringBuilder builder, Object argument, Field field) {
+        Object value;
+        try {
+            value = field.get(argument);
+        } catch (IllegalAccessException e) {
+            builder.append('?');
+            return;
+        }
+        if (isValue(value)) {
+            builder.append(value);
+        } else {
+            // Nested graphs are only named: sizing a lazy collection would initialize it.
+            builder.append(value.getClass().getSimpleName()).append("{...}");
+        }
+    }
+
+    private void sized(StringBuilder builder, Object argument, int size) {
+        builder.append(argument.getClass().getSimpleName()).append("[size=").append(size).append(']');
+    }
+
+    private void truncate(StringBuilder builder, int start) {
+        if (builder.length() - start > maxLength) {
+            builder.setLength(start + maxLength);
+            builder.append(TRUNCATED);
+        }
+    }
+
+    private boolean isRedacted(String name) {
+        return redactedNames.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private boolean isValue(Object value) {
+        return value == null ||
+                value instanceof CharSequence ||
+                value instanceof Number ||
+                value instanceof Boolean ||
+                value instanceof Character ||
+                value instanceof Enum ||
+                value instanceof Temporal ||
+                value instanceof UUID ||
+                value instanceof Money;
+    }
+}
@@ -1,81 +1,132 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+
 import java.lang.reflect.Method;
-import java.lang.reflect.Parameter;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoField;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.List;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 
 @Aspect
 @Component
 public class LogEndpointAspect {
 
+    private static final String TIMER_NAME = "endpoint.execution";
+
     Logger logger = LoggerFactory.getLogger(LogEndpointAspect.class);
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logging.arguments.sample-rate:1}")
+    private int argumentsSampleRate = 1;
+    @Value("${logging.arguments.max-length:256}")
+    private int argumentsMaxLength = 256;
+    @Value("${logging.arguments.redacted-names:password,secret,token}")
+    private String[] argumentsRedactedNames = {"password", "secret", "token"};
+
+    private final Map<Method, EndpointTimers> endpointTimers = new ConcurrentHashMap<>();
+    private ArgumentRenderer argumentRenderer;
+
+    @PostConstruct
+    public void start() {
+        Set<String> redactedNames = new HashSet<>();
+        for (String name: argumentsRedactedNames) {
+            redactedNames.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        argumentRenderer = new ArgumentRenderer(argumentsMaxLength, redactedNames);
+    }
+
     @Around("@annotation(LogExecutionTime)")
     public Object logExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        logTime(signature, "started");
-        long start = System.currentTimeMillis();
-        Object proceed = joinPoint.proceed();
-        long executionTime = System.currentTimeMillis() - start;
-        logTime(signature, "finished");
-        logger.info("Method " + signature.getName() +
-                " in class " + signature.getDeclaringType().getSimpleName() +
-                " executed in " + executionTime + " ms");
-        return proceed;
+        long start = System.nanoTime();
+        EndpointTimers timers = endpointTimers.computeIfAbsent(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), EndpointTimers::new);
+        try {
+            Object proceed = joinPoint.proceed();
+            timers.forResult(proceed).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return proceed;
+        } catch (Throwable e) {
+            timers.forException(e).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
     @Around("@annotation(LogExecutionArguments)")
     public Object logExecutionArguments(ProceedingJoinPoint joinPoint) throws Throwable {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        List<Parameter> parameters = Arrays.asList(method.getParameters());
-        List<Object> arguments = Arrays.asList(joinPoint.getArgs());
-        logArguments(signature, parameters, arguments);
-        Object proceed = joinPoint.proceed();
-        return proceed;
+        if (logger.isInfoEnabled() && sampled()) {
+            logArguments((MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+        }
+        return joinPoint.proceed();
     }
 
-    private void logTime(MethodSignature signature, String operation) {
-        LocalDateTime now = LocalDateTime.now();
-        int year = now.getYear();
-        int month = now.getMonthValue();
-        int day = now.getDayOfMonth();
-        int hour = now.getHour();
-        int minute = now.getMinute();
-        int second = now.getSecond();
-        int millis = now.get(ChronoField.MILLI_OF_SECOND);
-        logger.info("Method " + signature.getName() +
-                " in class " + signature.getDeclaringType().getSimpleName() +
-                " " + operation + " at " +
-                hour + ":" + minute + ":" + second + ":" + millis +
-                " on " + day + "-" + month + "-" + year);
+    private boolean sampled() {
+        return argumentsSampleRate <= 1 || ThreadLocalRandom.current().nextInt(argumentsSampleRate) == 0;
     }
 
-    private void logArguments(MethodSignature signature, List<Parameter> parameters, List<Object> arguments) {
-        logger.info("Method " + signature.getName() +
-                " in class " + signature.getDeclaringType().getSimpleName() +
-                " called with arguments:");
-        Iterator it1 = parameters.iterator();
-        Iterator it2 = arguments.iterator();
-        while(it1.hasNext() && it2.hasNext()) {
-            Parameter parameter = (Parameter) it1.next();
-            Object argument = it2.next();
-            logger.info("TYPE: " + parameter.getType().getSimpleName() +
-                    " | NAME: " + parameter.getName() +
-                    " | VALUE:  " + argument.toString());
+    private void logArguments(MethodSignature signature, Object[] arguments) {
+        logger.info("Method {} in class {} called with arguments: {}", signature.getName(),
+                signature.getDeclaringType().getSimpleName(),
+                argumentRenderer.render(signature.getMethod().getParameters(), arguments));
+    }
+
+    private class EndpointTimers {
+
+        private final Method method;
+        private final Timer[] outcomeTimers = new Timer[Outcome.values().length];
+        private final Map<Class<?>, Timer> exceptionTimers = new ConcurrentHashMap<>();
+
+        EndpointTimers(Method method) {
+            this.method = method;
+        }
+
+        Timer forResult(Object result) {
+            Outcome outcome = result instanceof ResponseEntity ?
+                    Outcome.forStatus(((ResponseEntity<?>) result).getStatusCodeValue()) : Outcome.SUCCESS;
+            Timer timer = outcomeTimers[outcome.ordinal()];
+            if (timer == null) {
+                timer = register(outcome, "None");
+                outcomeTimers[outcome.ordinal()] = timer;
+            }
+            return timer;
+        }
+
+        Timer forException(Throwable exception) {
+            return exceptionTimers.computeIfAbsent(exception.getClass(),
+                    type -> register(Outcome.SERVER_ERROR, type.getSimpleName()));
+        }
+
+        private Timer register(Outcome outcome, String exception) {
+            return Timer.builder(TIMER_NAME).
+                    description("Execution time of methods annotated with @LogExecutionTime").
+                    tag("class", method.getDeclaringClass().getSimpleName()).
+                    tag("method", method.getName()).
+                    tag("outcome", outcome.name()).
+                    tag("exception", exception).
+                    publishPercentileHistogram().
+                    minimumExpectedValue(Duration.ofMillis(1)).
+                    maximumExpectedValue(Duration.ofSeconds(30)).
+                    register(meterRegistry);
         }
     }
 }
@@ -1,8 +1,9 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.mail;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log.LogEndpointAspect;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ReturnedDonation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.MailOutboxService;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.SendEmailService;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.UserService;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -18,7 +19,6 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
 
 @Aspect
@@ -30,6 +30,8 @@ public class EmailAspect {
     SendEmailService emailService;
     @Autowired
     UserService userService;
+    @Autowired
+    MailOutboxService mailOutboxService;
 
     Logger logger = LoggerFactory.getLogger(LogEndpointAspect.class);
 
@@ -45,33 +47,31 @@ public class EmailAspect {
     @After("methodStarterServicePointcut()")
     public void mailRankings() throws Throwable {
         logger.warn("Rankings will be sent to all donors!!!");
-        List<Donor> donorList = userService.findAll();
-        for (Donor donor: donorList)
-        {
-            emailService.sendMessageWithAttachment(donor.getMail(),
-                    "Rankings del " + LocalDate.now().toString(),
-                    "Hola " + donor.getName() + ", ya estan los rankings del dia " + LocalDate.now().toString(),
-                    "./src/main/resources/rankings.txt",
-                    "Rankings del " + LocalDate.now().toString() + ".txt");
-        }
+        List<DonorSummary> donorList = userService.findAllSummaries();
+        String today = LocalDate.now().toString();
+        emailService.sendBulkMessageWithAttachment(donorList,
+                "Rankings del " + today,
+                donor -> "Hola " + donor.getName() + ", ya estan los rankings del dia " + today,
+                "./src/main/resources/rankings.txt",
+                "Rankings del " + today + ".txt");
     }
 
     @Around("@annotation(MailReturnedDonation)")
     public Object mailReturnedDonation(ProceedingJoinPoint joinPoint) throws Throwable {
-        logger.warn("A donation has to be returned to its donor!!!");
-        List<Object> arguments = Arrays.asList(joinPoint.getArgs());
-        Donation donation = (Donation) arguments.get(0);
-        Donor donor = (Donor) arguments.get(1);
-        String email = donor.getMail();
         Object proceed = joinPoint.proceed();
-        logger.warn("We are about to send mail to " + email + "!!!");
-        emailService.sendSimpleMessage(email,
-                "Se te ha devuelto una donacion!",
-                "Hola " + donor.getName() + ", solo queriamos avisarte que se te ha devuelto a " +
-                        "tu cuenta una donacion de $" + donation.getAmount() + " que realizaste al " +
-                        "proyecto " + donation.getProjectName() + " el dia " + donation.getDate());
+        List<ReturnedDonation> returnedDonations = (List<ReturnedDonation>) proceed;
+        logger.warn(returnedDonations.size() + " donations have been returned to their donors!!!");
+        for (ReturnedDonation donation: returnedDonations)
+        {
+            String email = donation.getDonorMail();
+            logger.warn("We are about to queue a mail to " + email + "!!!");
+            mailOutboxService.enqueue(email,
+                    "Se te ha devuelto una donacion!",
+                    "Hola " + donation.getDonorName() + ", solo queriamos avisarte que se te ha devuelto a " +
+                            "tu cuenta una donacion de $" + donation.getAmount() + " que realizaste al " +
+                            "proyecto " + donation.getProjectName() + " el dia " + donation.getDate());
+        }
         return proceed;
-
     }
 
 }
@@ -1,20 +1,32 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Column;
-import java.math.BigDecimal;
+import javax.persistence.Index;
+import javax.persistence.Table;
 import java.time.LocalDate;
-import java.util.Optional;
 
 @Entity
-@SequenceGenerator(name = "SEQ_DONATION", sequenceName = "SEQUENCE_DONATION", initialValue = 1, allocationSize = 1)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "donation")
+@Table(indexes = {
+        @Index(name = "IDX_DONATION_PROJECT_DONOR", columnList = "projectName, donorNickname"),
+        @Index(name = "IDX_DONATION_DONOR", columnList = "donorNickname"),
+        @Index(name = "IDX_DONATION_AMOUNT", columnList = "amount")
+})
+@SequenceGenerator(name = "SEQ_DONATION", sequenceName = "SEQUENCE_DONATION", initialValue = 1, allocationSize = 50)
 public class Donation {
 
+    private static final Money AMOUNT_POINTS_THRESHOLD = Money.of(1000);
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_DONATION")
     private Integer id;
@@ -26,7 +38,7 @@ public class Donation {
     private String projectName;
 
     @Column
-    private BigDecimal amount;
+    private Money amount;
 
     @Column
     private String comment;
@@ -36,7 +48,7 @@ public class Donation {
 
     public Donation() {}
 
-    public Donation(String donorNickname, String projectName, BigDecimal amount, String comment, LocalDate date) {
+    public Donation(String donorNickname, String projectName, Money amount, String comment, LocalDate date) {
         this.donorNickname = donorNickname;
         this.projectName = projectName;
         this.amount = amount;
@@ -64,11 +76,11 @@ public class Donation {
         this.projectName = projectName;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -94,16 +106,14 @@ public class Donation {
 
     public int calculatePoints(Donor donor, Project project) {
         int currentDonationPoints = 0;
-        Optional<Donation> donorUserLastDonation = donor.lastDonation();
 
-        if (amount.compareTo(new BigDecimal(1000)) > 0) {
-            currentDonationPoints = amount.intValue();
+        if (amount.isGreaterThan(AMOUNT_POINTS_THRESHOLD)) {
+            currentDonationPoints = (int) amount.getUnits();
         }
         if (project.locationPopulation() < 2000) {
-            currentDonationPoints = amount.intValue() * 2;
+            currentDonationPoints = (int) amount.getUnits() * 2;
         }
-        LocalDate lastDate = donorUserLastDonation.map(Donation::getDate).orElse(null);
-        if (lastDate != null && (LocalDate.now().getMonthValue() == lastDate.getMonthValue()) && (LocalDate.now().getYear() == lastDate.getYear())) {
+        if (donor.hasDonatedInMonthOf(date != null ? date : LocalDate.now())) {
             currentDonationPoints += pointsFromLastDonationOnSameMonth();
         }
         return currentDonationPoints;
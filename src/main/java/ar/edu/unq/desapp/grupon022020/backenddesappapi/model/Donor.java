@@ -2,24 +2,33 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
-import javax.validation.constraints.PositiveOrZero;
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "donor")
+@Table(indexes = @Index(name = "IDX_DONOR_MAIL", columnList = "mail", unique = true))
 public class Donor {
 
     @Id
@@ -38,9 +47,8 @@ public class Donor {
     @Column
     @NotBlank(message = "Password cannot be blank")
     private String password;
-    //TODO: save password as Hash in the database!
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, mappedBy = "donorNickname")
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "donorNickname")
     private List<Donation> donations;
 
     @Column
@@ -48,12 +56,20 @@ public class Donor {
 
     @Column
     @NotNull
-    @PositiveOrZero(message = "Money should be zero or positive")
-    private BigDecimal money;
+    private Money money;
+
+    @Column
+    private LocalDate lastDonationDate;
+
+    @Column
+    private int lastDonationMonth;
+
+    @Version
+    private long version;
 
     public Donor() {};
 
-    public Donor(String name, String nickname, String mail, String password, List<Donation> donations, int points, BigDecimal money) {
+    public Donor(String name, String nickname, String mail, String password, List<Donation> donations, int points, Money money) {
         this.nickname = nickname;
         this.name = name;
         this.mail = mail;
@@ -61,6 +77,7 @@ public class Donor {
         this.donations = donations;
         this.points = points;
         this.money = money;
+        recalculateLastDonation();
     }
 
     public String getNickname() {
@@ -101,6 +118,7 @@ public class Donor {
 
     public void setDonations(List<Donation> donations) {
         this.donations = donations;
+        recalculateLastDonation();
     }
 
     public int getPoints() {
@@ -111,15 +129,20 @@ public class Donor {
         this.points = points;
     }
 
-    public BigDecimal getMoney() {
+    public Money getMoney() {
         return money;
     }
 
-    public void setMoney(BigDecimal money) {
+    public void setMoney(Money money) {
         this.money = money;
     }
 
-    public Donation donate(BigDecimal amount, String comment, Project project) throws InvalidDonationException {
+    @AssertTrue(message = "Money should be zero or positive")
+    private boolean isMoneyPositiveOrZero() {
+        return money == null || !money.isNegative();
+    }
+
+    public Donation donate(Money amount, String comment, Project project, boolean firstToProject) throws InvalidDonationException {
         validateDonation(project, amount);
         Donation donation = DonationBuilder.aDonation().
                 withDonorNickname(this.getNickname()).
@@ -128,22 +151,25 @@ public class Donor {
                 withComment(comment).
                 withDate(LocalDate.now()).
                 build();
-        executeDonation(donation, project);
+        executeDonation(donation, project, firstToProject);
         return donation;
     }
 
-    private void validateDonation(Project project, BigDecimal amount) throws InvalidDonationException {
-        if (amount.compareTo(this.money) > 0) {
+    private void validateDonation(Project project, Money amount) throws InvalidDonationException {
+        if (amount.isGreaterThan(this.money)) {
             throw new InvalidDonationException("User " + this.getNickname() + " does not have enough money");
         }
         project.validateDonation();
     }
 
-    private void executeDonation(Donation donation, Project project) {
+    private void executeDonation(Donation donation, Project project, boolean firstToProject) {
         this.points += donation.calculatePoints(this, project);
         this.donations.add(donation);
-        this.money = this.money.subtract(donation.getAmount());
-        project.receiveDonation(donation);
+        this.money = this.money.minus(donation.getAmount());
+        if (lastDonationDate == null || donation.getDate().isAfter(lastDonationDate)) {
+            updateLastDonation(donation.getDate());
+        }
+        project.receiveDonation(donation, firstToProject);
     }
 
     public Optional<Donation> lastDonation() {
@@ -152,8 +178,33 @@ public class Donor {
 
     public void undoDonation(Donation donation) {
         //TODO: return points when donation is cancelled!
-        this.money = this.money.add(donation.getAmount());
+        this.money = this.money.plus(donation.getAmount());
         this.donations.remove(donation);
+        if (donation.getDate() != null && donation.getDate().equals(lastDonationDate)) {
+            recalculateLastDonation();
+        }
+    }
+
+    public LocalDate getLastDonationDate() {
+        return lastDonationDate;
+    }
+
+    public boolean hasDonatedInMonthOf(LocalDate date) {
+        return lastDonationDate != null && lastDonationMonth == monthOf(date);
+    }
+
+    private static int monthOf(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private void updateLastDonation(LocalDate date) {
+        this.lastDonationDate = date;
+        this.lastDonationMonth = date == null ? 0 : monthOf(date);
+    }
+
+    private void recalculateLastDonation() {
+        updateLastDonation(donations == null ? null :
+                donations.stream().map(Donation::getDate).filter(Objects::nonNull).max(Comparator.naturalOrder()).orElse(null));
     }
 
     @Override
@@ -161,7 +212,6 @@ public class Donor {
         return "[Nickname: " + this.nickname +
                 " | Name: " + this.name +
                 " | Mail: " + this.mail +
-                " | Password: " + this.password +
                 " | Money: " + this.money +
                 " | Points: " + this.points + "]";
     }
@@ -1,14 +1,25 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Positive;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "location")
 public class Location {
 
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     @Id
     @NotBlank(message = "Name cannot be blank")
     private String name;
@@ -25,6 +36,9 @@ public class Location {
     @NotBlank(message = "State cannot be blank")
     private String state;
 
+    @Column
+    private Long syncHash;
+
     public Location() {}
 
     public Location(String name, String province, int population, String state) {
@@ -65,4 +79,30 @@ public class Location {
     public void setState(String state) {
         this.state = state;
     }
+
+    public Long getSyncHash() {
+        return syncHash;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateSyncHash() {
+        this.syncHash = contentHash();
+    }
+
+    public long contentHash() {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, province);
+        hash = hash(hash, String.valueOf(population));
+        return hash(hash, state);
+    }
+
+    private long hash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        return (hash ^ 0x1F) * FNV_PRIME;
+    }
 }
@@ -0,0 +1,123 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(indexes = {@Index(name = "IDX_OUTBOX_MAIL_DUE", columnList = "status, nextAttemptAt"),
+        @Index(name = "IDX_OUTBOX_MAIL_CLAIM", columnList = "claimToken")})
+@SequenceGenerator(name = "SEQ_OUTBOX_MAIL", sequenceName = "SEQUENCE_OUTBOX_MAIL", initialValue = 1, allocationSize = 50)
+public class OutboxMail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SEQ_OUTBOX_MAIL")
+    private Long id;
+
+    @Column
+    private String recipient;
+
+    @Column
+    private String subject;
+
+    @Column(length = 2000)
+    private String text;
+
+    @Column
+    @Enumerated(EnumType.STRING)
+    private OutboxMailStatus status;
+
+    @Column
+    private int attempts;
+
+    @Column
+    private LocalDateTime nextAttemptAt;
+
+    @Column
+    private LocalDateTime createdAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    public OutboxMail() {}
+
+    public OutboxMail(String recipient, String subject, String text, LocalDateTime createdAt) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.text = text;
+        this.status = OutboxMailStatus.PENDING;
+        this.attempts = 0;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+
+    public void setId(Long id) { this.id = id; }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public OutboxMailStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public void markSent() {
+        this.status = OutboxMailStatus.SENT;
+        this.lastError = null;
+    }
+
+    public void markFailedAttempt(String error, int maxAttempts, LocalDateTime nextAttemptAt) {
+        this.attempts++;
+        this.lastError = error == null || error.length() <= 500 ? error : error.substring(0, 500);
+        if (attempts >= maxAttempts) {
+            this.status = OutboxMailStatus.FAILED;
+        } else {
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+
+    public boolean isPending() {
+        return status == OutboxMailStatus.PENDING;
+    }
+}
@@ -0,0 +1,8 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
+
+public enum OutboxMailStatus
+{
+    PENDING,
+    SENT,
+    FAILED
+}
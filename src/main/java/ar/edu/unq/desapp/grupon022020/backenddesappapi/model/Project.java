@@ -1,22 +1,42 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.ColumnResult;
 import javax.persistence.Entity;
+import javax.persistence.EntityResult;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
-import java.math.BigDecimal;
+import javax.persistence.SqlResultSetMapping;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project")
+@Table(indexes = {@Index(name = "IDX_PROJECT_STATUS_ACTIVITY", columnList = "status, lastActivityDate"),
+        @Index(name = "IDX_PROJECT_STATUS_FINISH", columnList = "status, finishDate"),
+        @Index(name = "IDX_PROJECT_LOCATION_STATUS", columnList = "location_name, status")})
+@SqlResultSetMapping(name = "ProjectCreationCheck",
+        entities = @EntityResult(entityClass = Location.class),
+        columns = {@ColumnResult(name = "active_projects", type = Long.class),
+                @ColumnResult(name = "complete_projects", type = Long.class),
+                @ColumnResult(name = "projects_with_name", type = Long.class)})
 public class Project {
 
     @Id
@@ -34,18 +54,34 @@ public class Project {
     @Column
     private LocalDate finishDate;
 
-    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, mappedBy = "projectName")
+    @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "projectName")
     private List<Donation> donations;
 
     @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private Location location;
 
     @Column
-    private String status;
+    @Enumerated(EnumType.STRING)
+    private ProjectStatus status;
+
+    @Column
+    private Money totalDonated = Money.ZERO;
+
+    @Column
+    private int donorsCount;
+
+    @Column
+    private LocalDate lastDonationDate;
+
+    @Column
+    private LocalDate lastActivityDate;
+
+    @Version
+    private long version;
 
     public Project() {}
 
-    public Project(String name, int factor, int closurePercentage, LocalDate startDate, int durationInDays, List<Donation> donations, Location location, String status) {
+    public Project(String name, int factor, int closurePercentage, LocalDate startDate, int durationInDays, List<Donation> donations, Location location, ProjectStatus status) {
         this.name = name;
         this.factor = factor;
         this.closurePercentage = closurePercentage;
@@ -54,6 +90,7 @@ public class Project {
         this.donations = donations;
         this.location = location;
         this.status = status;
+        recalculateAggregates();
     }
 
     public String getName() {
@@ -86,6 +123,7 @@ public class Project {
 
     public void setStartDate(LocalDate startDate) {
         this.startDate = startDate;
+        updateLastActivityDate();
     }
 
     public LocalDate getFinishDate() {
@@ -102,6 +140,7 @@ public class Project {
 
     public void setDonations(List<Donation> donations) {
         this.donations = donations;
+        recalculateAggregates();
     }
 
     public Location getLocation() {
@@ -112,18 +151,27 @@ public class Project {
         this.location = location;
     }
 
-    public String getStatus() {
+    public ProjectStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(ProjectStatus status) {
         this.status = status;
     }
 
-    public void receiveDonation(Donation donation) {
+    public LocalDate getLastDonationDate() {
+        return lastDonationDate;
+    }
+
+    public LocalDate getLastActivityDate() {
+        return lastActivityDate;
+    }
+
+    public void receiveDonation(Donation donation, boolean firstFromDonor) {
         this.donations.add(donation);
+        addToAggregates(donation, firstFromDonor);
         if(hasReachedGoal()) {
-            setStatus(ProjectStatus.COMPLETE.name());
+            setStatus(ProjectStatus.COMPLETE);
         }
     }
 
@@ -133,7 +181,7 @@ public class Project {
 
     public void validateDonation() throws InvalidDonationException {
         LocalDate today = LocalDate.now();
-        if(!(status.equals(ProjectStatus.ACTIVE.name()))) {
+        if(status != ProjectStatus.ACTIVE) {
             throw  new InvalidDonationException("Project " + this.getName() + " is " + getStatus());
         }
         if (today.isBefore(this.getStartDate())) {
@@ -149,34 +197,66 @@ public class Project {
     }
 
     public float percentageAchieved(){
-        return ((float) totalAmountDonations().intValue() / moneyRequired()) * 100;
+        long required = moneyRequired().getCents();
+        if (required == 0) {
+            return 0;
+        }
+        return ((float) totalDonated.getCents() / required) * 100;
     }
 
-    public BigDecimal totalAmountDonations() {
-        return new BigDecimal(donations.stream().map(Donation::getAmount).map(BigDecimal::intValue).reduce(0, Integer::sum));
+    public Money totalAmountDonations() {
+        return totalDonated;
     }
 
-    public int moneyRequired() {
-        return this.factor * this.getLocation().getPopulation();
+    public Money moneyRequired() {
+        return this.location == null ? Money.ZERO : Money.of((long) this.factor * this.location.getPopulation());
     }
 
     public void cancel() {
-        this.status = ProjectStatus.CANCELLED.name();
+        this.status = ProjectStatus.CANCELLED;
+        undoDonations();
     }
 
     public void undoDonations() {
         this.donations.clear();
+        resetAggregates();
     }
 
     public int numberOfDonors(){
-        return ((int) this.donations.stream().map(Donation::getDonorNickname).distinct().count());
+        return donorsCount;
+    }
+
+    private void recalculateAggregates() {
+        resetAggregates();
+        if (donations != null) {
+            Set<String> donors = new HashSet<>();
+            donations.stream().filter(Objects::nonNull).
+                    forEach(donation -> addToAggregates(donation, donors.add(donation.getDonorNickname())));
+        }
     }
 
-    public List<String> donors(){
-        return this.donations.stream().map(Donation::getDonorNickname).distinct().collect(Collectors.toList());
+    private void resetAggregates() {
+        this.totalDonated = Money.ZERO;
+        this.donorsCount = 0;
+        this.lastDonationDate = null;
+        updateLastActivityDate();
     }
-    
-    public Optional<Donation> lastDonation() {
-        return donations.stream().max(Comparator.comparing(Donation::getDate));
+
+    private void addToAggregates(Donation donation, boolean firstFromDonor) {
+        if (donation.getAmount() != null) {
+            this.totalDonated = this.totalDonated.plus(donation.getAmount());
+        }
+        if (firstFromDonor) {
+            this.donorsCount++;
+        }
+        LocalDate date = donation.getDate();
+        if (date != null && (lastDonationDate == null || date.isAfter(lastDonationDate))) {
+            this.lastDonationDate = date;
+            updateLastActivityDate();
+        }
+    }
+
+    private void updateLastActivityDate() {
+        this.lastActivityDate = lastDonationDate != null ? lastDonationDate : startDate;
     }
 }
@@ -1,14 +1,14 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
-import java.math.BigDecimal;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import java.time.LocalDate;
 
 public class DonationBuilder {
 
     private String donorNickname = "default_donorNickname";
     private String projectName = "default_projectName";
-    private BigDecimal amount = new BigDecimal(1000);
+    private Money amount = Money.of(1000);
     private String comment = "default_comment";
     private LocalDate date = LocalDate.now();
 
@@ -31,7 +31,7 @@ public class DonationBuilder {
         return this;
     }
 
-    public DonationBuilder withAmount(BigDecimal amount) {
+    public DonationBuilder withAmount(Money amount) {
         this.amount = amount;
         return this;
     }
@@ -2,8 +2,8 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,7 +15,7 @@ public class DonorBuilder {
     private String password = "default_password";
     private List<Donation> donations = new ArrayList<>();
     private int points = 0;
-    private BigDecimal money = new BigDecimal(0);
+    private Money money = Money.ZERO;
 
     public static DonorBuilder aDonorUser() {
         return new DonorBuilder();
@@ -56,7 +56,7 @@ public class DonorBuilder {
         return this;
     }
 
-    public DonorBuilder withMoney(BigDecimal money) {
+    public DonorBuilder withMoney(Money money) {
         this.money = money;
         return this;
     }
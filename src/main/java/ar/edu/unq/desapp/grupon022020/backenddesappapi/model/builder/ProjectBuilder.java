@@ -19,7 +19,7 @@ public class ProjectBuilder {
     private int durationInDays = 1;
     private List<Donation> donations = new ArrayList<>();
     private Location location = LocationBuilder.aLocation().build();
-    private String status = ProjectStatus.ACTIVE.name();
+    private ProjectStatus status = ProjectStatus.ACTIVE;
 
     public static ProjectBuilder aProject() {
         return new ProjectBuilder();
@@ -65,7 +65,7 @@ public class ProjectBuilder {
         return this;
     }
 
-    public ProjectBuilder withStatus(String status) {
+    public ProjectBuilder withStatus(ProjectStatus status) {
         this.status = status;
         return this;
     }
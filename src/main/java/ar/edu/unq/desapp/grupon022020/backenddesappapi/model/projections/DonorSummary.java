@@ -0,0 +1,16 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+
+public interface DonorSummary {
+
+    String getNickname();
+
+    String getName();
+
+    String getMail();
+
+    int getPoints();
+
+    Money getMoney();
+}
@@ -0,0 +1,8 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections;
+
+public interface LocationHash {
+
+    String getName();
+
+    Long getSyncHash();
+}
@@ -0,0 +1,14 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+
+public interface ProjectCreationCheck {
+
+    Location getLocation();
+
+    long getActiveProjects();
+
+    long getCompleteProjects();
+
+    long getProjectsWithName();
+}
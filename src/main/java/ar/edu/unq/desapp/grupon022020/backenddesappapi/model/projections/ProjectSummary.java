@@ -0,0 +1,40 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+
+public interface ProjectSummary {
+
+    String getName();
+
+    ProjectStatus getStatus();
+
+    LocalDate getStartDate();
+
+    LocalDate getFinishDate();
+
+    String getLocationName();
+
+    String getProvince();
+
+    Money getTotalDonated();
+
+    int getDonorsCount();
+
+    @JsonIgnore
+    int getFactor();
+
+    @JsonIgnore
+    int getPopulation();
+
+    default Money getMoneyRequired() {
+        return Money.of((long) getFactor() * getPopulation());
+    }
+
+    default float getPercentageAchieved() {
+        return ((float) getTotalDonated().getCents() / getMoneyRequired().getCents()) * 100;
+    }
+}
@@ -0,0 +1,18 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+
+import java.time.LocalDate;
+
+public interface ReturnedDonation {
+
+    String getProjectName();
+
+    Money getAmount();
+
+    LocalDate getDate();
+
+    String getDonorName();
+
+    String getDonorMail();
+}
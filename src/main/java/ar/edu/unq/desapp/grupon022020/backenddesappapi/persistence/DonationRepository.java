@@ -1,15 +1,20 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ReturnedDonation;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Configuration
 @Repository
@@ -19,8 +24,24 @@ public interface DonationRepository extends CrudRepository<Donation, Integer> {
 
     List<Donation> findAll();
 
+    <S extends Donation> List<S> saveAll(Iterable<S> donations);
+
+    List<Donation> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+    List<Donation> findTop10ByOrderByAmountDesc();
+
+    boolean existsByProjectNameAndDonorNickname(String projectName, String donorNickname);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT d FROM Donation d ORDER BY d.id")
+    Stream<Donation> streamAll();
+
     @Transactional
     @Modifying
-    @Query("DELETE FROM Donation d WHERE d.id=?1")
-    void deleteDonation(Integer id);
+    @Query("DELETE FROM Donation d WHERE d.projectName=?1")
+    int deleteDonationsOfProject(String projectName);
+
+    @Query("SELECT d.projectName AS projectName, d.amount AS amount, d.date AS date, u.name AS donorName, u.mail AS donorMail " +
+            "FROM Donation d, Donor u WHERE u.nickname = d.donorNickname AND d.projectName=?1")
+    List<ReturnedDonation> getReturnedDonations(String projectName);
 }
@@ -1,12 +1,19 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.LocationHash;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Configuration
 @Repository
@@ -17,4 +24,16 @@ public interface LocationRepository extends CrudRepository<Location, String> {
     Optional<Location> findById(String id);
 
     List<Location> findAll();
+
+    List<Location> findByNameGreaterThanOrderByNameAsc(String name, Pageable pageable);
+
+    @Query("SELECT l.name FROM Location l")
+    Set<String> findAllNames();
+
+    @Query("SELECT l.name AS name, l.syncHash AS syncHash FROM Location l")
+    List<LocationHash> findAllHashes();
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT l FROM Location l ORDER BY l.name")
+    Stream<Location> streamAll();
 }
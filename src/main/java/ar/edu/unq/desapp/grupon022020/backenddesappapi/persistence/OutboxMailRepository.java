@@ -0,0 +1,33 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMail;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMailStatus;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Configuration
+@Repository
+public interface OutboxMailRepository extends CrudRepository<OutboxMail, Long> {
+
+    @Query("SELECT m.id FROM OutboxMail m WHERE m.status=?1 AND m.nextAttemptAt <= ?2 ORDER BY m.id")
+    List<Long> findDueIds(OutboxMailStatus status, LocalDateTime now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboxMail m SET m.claimToken=?1, m.nextAttemptAt=?2 " +
+            "WHERE m.id IN ?3 AND m.status=?4 AND m.nextAttemptAt <= ?5")
+    int claim(String claimToken, LocalDateTime leaseUntil, List<Long> ids, OutboxMailStatus status, LocalDateTime now);
+
+    List<OutboxMail> findByClaimToken(String claimToken);
+
+    long countByStatus(OutboxMailStatus status);
+
+}
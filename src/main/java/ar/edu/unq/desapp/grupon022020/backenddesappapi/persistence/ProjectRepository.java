@@ -1,26 +1,51 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
 
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Configuration
 @Repository
-public interface ProjectRepository extends CrudRepository<Project, String> {
+public interface ProjectRepository extends CrudRepository<Project, String>, ProjectRepositoryCustom {
+
+    String SELECT_SUMMARY = "SELECT p.name AS name, p.status AS status, p.startDate AS startDate, p.finishDate AS finishDate, " +
+            "p.location.name AS locationName, p.location.province AS province, p.totalDonated AS totalDonated, " +
+            "p.donorsCount AS donorsCount, p.factor AS factor, p.location.population AS population FROM Project p ";
 
     Optional<Project> findById(String id);
 
     List<Project> findAll();
 
-    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Project p WHERE p.location.name=?1 and p.status=?2")
-    boolean existsProjectForLocationWithStatus(String locationName, String status);
+    @Query("SELECT p.name FROM Project p WHERE p.status=?1 AND p.finishDate=?2 AND p.name > ?3 ORDER BY p.name")
+    List<String> findNamesWithStatusAndFinishDate(ProjectStatus status, LocalDate finishDate, String after, Pageable pageable);
+
+    @Query("SELECT p.location FROM Project p WHERE p.status=?1 ORDER BY p.lastActivityDate")
+    List<Location> getLocationsByLastActivity(ProjectStatus status, Pageable pageable);
+
+    @Query(SELECT_SUMMARY)
+    List<ProjectSummary> findAllSummaries();
+
+    @Query(SELECT_SUMMARY + "WHERE p.status=?1 AND p.finishDate BETWEEN ?2 AND ?3 ORDER BY p.finishDate, p.name")
+    List<ProjectSummary> findSummariesWithStatusFinishingBetween(ProjectStatus status, LocalDate from, LocalDate to);
+
+    @Query(SELECT_SUMMARY + "WHERE p.name > ?1 ORDER BY p.name")
+    List<ProjectSummary> findSummariesAfter(String name, Pageable pageable);
 
-    @Query("SELECT p FROM Project p WHERE p.status=?1")
-    List<Project> getProjectsWithStatus(String status);
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(SELECT_SUMMARY + "ORDER BY p.name")
+    Stream<ProjectSummary> streamAllSummaries();
 
 }
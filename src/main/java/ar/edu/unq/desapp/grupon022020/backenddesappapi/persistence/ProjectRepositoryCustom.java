@@ -0,0 +1,10 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectCreationCheck;
+
+public interface ProjectRepositoryCustom {
+
+    ProjectCreationCheck checkProjectCreation(String locationName, String projectName,
+                                              ProjectStatus active, ProjectStatus complete);
+}
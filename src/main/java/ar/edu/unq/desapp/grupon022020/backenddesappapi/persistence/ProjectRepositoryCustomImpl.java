@@ -0,0 +1,69 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectCreationCheck;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class ProjectRepositoryCustomImpl implements ProjectRepositoryCustom {
+
+    // JPQL has no one-row source, so the location is left joined to one in SQL. The row always comes
+    // back and the project counts do not depend on the location existing.
+    private static final String CHECK_PROJECT_CREATION = "SELECT l.name, l.population, l.province, l.state, l.sync_hash, " +
+            "(SELECT COUNT(*) FROM project a WHERE a.location_name = ?1 AND a.status = ?3) AS active_projects, " +
+            "(SELECT COUNT(*) FROM project c WHERE c.location_name = ?1 AND c.status = ?4) AS complete_projects, " +
+            "(SELECT COUNT(*) FROM project n WHERE n.name = ?2) AS projects_with_name " +
+            "FROM (SELECT 1 AS one) source LEFT JOIN location l ON l.name = ?1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ProjectCreationCheck checkProjectCreation(String locationName, String projectName,
+                                                     ProjectStatus active, ProjectStatus complete) {
+        Object[] row = (Object[]) entityManager.createNativeQuery(CHECK_PROJECT_CREATION, "ProjectCreationCheck").
+                setParameter(1, locationName).
+                setParameter(2, projectName).
+                setParameter(3, active.name()).
+                setParameter(4, complete.name()).
+                getSingleResult();
+        return new Check((Location) row[0], (Long) row[1], (Long) row[2], (Long) row[3]);
+    }
+
+    private static class Check implements ProjectCreationCheck {
+
+        private final Location location;
+        private final long activeProjects;
+        private final long completeProjects;
+        private final long projectsWithName;
+
+        private Check(Location location, long activeProjects, long completeProjects, long projectsWithName) {
+            this.location = location;
+            this.activeProjects = activeProjects;
+            this.completeProjects = completeProjects;
+            this.projectsWithName = projectsWithName;
+        }
+
+        @Override
+        public Location getLocation() {
+            return location;
+        }
+
+        @Override
+        public long getActiveProjects() {
+            return activeProjects;
+        }
+
+        @Override
+        public long getCompleteProjects() {
+            return completeProjects;
+        }
+
+        @Override
+        public long getProjectsWithName() {
+            return projectsWithName;
+        }
+    }
+}
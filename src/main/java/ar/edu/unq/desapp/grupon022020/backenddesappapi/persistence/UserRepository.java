@@ -1,25 +1,62 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Configuration
 @Repository
 public interface UserRepository extends CrudRepository<Donor, String> {
 
+    String SELECT_SUMMARY = "SELECT d.nickname AS nickname, d.name AS name, d.mail AS mail, d.points AS points, d.money AS money FROM Donor d ";
+
     boolean existsById(String name);
 
     Optional<Donor> findById(String id);
 
+    Optional<Donor> findByMail(String mail);
+
+    boolean existsByMail(String mail);
+
     List<Donor> findAll();
 
-    @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Donor d WHERE d.nickname=?1 and d.password=?2")
-    boolean loginUser(String nickname, String password);
+    @Query("SELECT d.password FROM Donor d WHERE d.nickname=?1")
+    Optional<String> findPasswordByNickname(String nickname);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Donor d SET " +
+            "d.money = d.money + (SELECT SUM(x.amount) FROM Donation x WHERE x.donorNickname = d.nickname AND x.projectName = ?1), " +
+            "d.version = d.version + 1, " +
+            "d.lastDonationDate = (SELECT MAX(x.date) FROM Donation x WHERE x.donorNickname = d.nickname AND x.projectName <> ?1), " +
+            "d.lastDonationMonth = COALESCE((SELECT MAX(YEAR(x.date) * 12 + MONTH(x.date) - 1) FROM Donation x " +
+            "WHERE x.donorNickname = d.nickname AND x.projectName <> ?1), 0) " +
+            "WHERE d.nickname IN (SELECT x.donorNickname FROM Donation x WHERE x.projectName = ?1)")
+    int refundDonorsOfProject(String projectName);
+
+    @Query(SELECT_SUMMARY)
+    List<DonorSummary> findAllSummaries();
+
+    @Query(SELECT_SUMMARY + "WHERE d.nickname = ?1")
+    Optional<DonorSummary> findSummaryByNickname(String nickname);
+
+    @Query(SELECT_SUMMARY + "WHERE d.nickname > ?1 ORDER BY d.nickname")
+    List<DonorSummary> findSummariesAfter(String nickname, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(SELECT_SUMMARY + "ORDER BY d.nickname")
+    Stream<DonorSummary> streamAllSummaries();
 
 }
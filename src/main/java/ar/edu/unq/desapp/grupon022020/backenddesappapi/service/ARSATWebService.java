@@ -2,86 +2,411 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.FileReader;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 @Service
 public class ARSATWebService {
 
+    protected final Log logger = LogFactory.getLog(getClass());
+
     @Autowired
     private LocationService locationService;
 
+    @Value("${arsat.url:http://prod.arsat.apim.junar.com/plan-federal-de-internet/v1/puntos/}")
+    private String url;
+    @Value("${arsat.http.max-connections:4}")
+    private int maxConnections;
+    @Value("${arsat.http.connect-timeout-millis:2000}")
+    private int connectTimeoutMillis;
+    @Value("${arsat.http.read-timeout-millis:10000}")
+    private int readTimeoutMillis;
+
+    private final List<Feed> feeds = Arrays.asList(
+            new Feed("conectados.json", "conectados.json", 3, 4, 6, 8),
+            new Feed("futuros.json", "futuros.json", 2, 3, 5, 7));
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ExecutorService fetchPool;
+
+    @PostConstruct
+    public void start() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        httpClient = HttpClients.custom().
+                setConnectionManager(connectionManager).
+                setDefaultRequestConfig(RequestConfig.custom().
+                        setConnectTimeout(connectTimeoutMillis).
+                        setConnectionRequestTimeout(connectTimeoutMillis).
+                        setSocketTimeout(readTimeoutMillis).
+                        build()).
+                build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        AtomicInteger threadNumber = new AtomicInteger();
+        fetchPool = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "arsat-fetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        fetchPool.shutdown();
+        httpClient.close();
+    }
+
     public void loadLocationsFromARSAT() {
-        final String url = "http://prod.arsat.apim.junar.com/plan-federal-de-internet/v1/puntos/";
         try {
-            String conectados_url = url + "conectados.json";
-            String backupFile_1 = "./src/main/resources/conectados.json";
-            List<Location> connectedLocations = getLocations(conectados_url, 3, 4, 6, 8, backupFile_1);
-            for (Location location :connectedLocations){
-                locationService.save(location);
-            }
-            String futuros_url = url + "futuros.json";
-            String backupFile_2 = "./src/main/resources/futuros.json";
-            List<Location> planningLocations = getLocations(futuros_url, 2, 3, 5, 7, backupFile_2);
-            for (Location location :planningLocations){
-                locationService.save(location);
-            }
+            syncLocations();
         }
         catch(IOException e) {
             // Keep loading fake data...
+            logger.warn("ARSAT locations could not be loaded: " + e.getMessage());
+        }
+    }
+
+    public SyncReport syncLocations() throws IOException {
+        // The startup load and the cron job can overlap; the second one has nothing new to add.
+        if (!syncLock.tryLock()) {
+            logger.info("ARSAT sync already in progress, skipping this run");
+            return SyncReport.skipped();
+        }
+        try {
+            return sync();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private SyncReport sync() throws IOException {
+        List<FeedStatus> statuses = fetchFeeds(true);
+        Map<String, Long> knownHashes = locationService.findSyncHashes();
+        List<Location> upserts = new ArrayList<>();
+        SyncReport report = new SyncReport();
+        for (Location location: merge()) {
+            location.updateSyncHash();
+            Long knownHash = knownHashes.get(location.getName());
+            if (knownHash == null && !knownHashes.containsKey(location.getName())) {
+                report.newRows++;
+                upserts.add(location);
+            } else if (!location.getSyncHash().equals(knownHash)) {
+                report.changedRows++;
+                upserts.add(location);
+            } else {
+                report.unchangedRows++;
+            }
+        }
+        for (FeedStatus status: statuses) {
+            if (status == FeedStatus.NOT_MODIFIED) {
+                report.notModifiedFeeds++;
+            } else if (status == FeedStatus.UNAVAILABLE) {
+                report.unavailableFeeds++;
+            }
+        }
+        if (!upserts.isEmpty()) {
+            locationService.saveAll(upserts);
+        }
+        logger.info("ARSAT sync finished: " + report);
+        return report;
+    }
+
+    public List<Location> fetchLocations() throws IOException {
+        syncLock.lock();
+        try {
+            fetchFeeds(false);
+            return merge();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private List<FeedStatus> fetchFeeds(boolean conditional) throws IOException {
+        List<CompletableFuture<FeedStatus>> requests = new ArrayList<>();
+        for (Feed feed: feeds) {
+            requests.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return fetch(feed, conditional);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, fetchPool));
+        }
+        List<FeedStatus> results = new ArrayList<>();
+        try {
+            for (CompletableFuture<FeedStatus> request: requests) {
+                results.add(request.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    private List<Location> merge() {
+        // Later feeds win over earlier ones with the same name, as they did when saved one by one.
+        // Feeds that were not modified or are unavailable take part with the rows they last returned.
+        Map<String, FeedRow> rows = new LinkedHashMap<>();
+        for (Feed feed: feeds) {
+            feed.rows.forEach(row -> rows.put(row.name, row));
+        }
+        return rows.values().stream().map(FeedRow::toLocation).collect(Collectors.toList());
+    }
+
+    private FeedStatus fetch(Feed feed, boolean conditional) throws IOException {
+        String feedUrl = url + feed.path;
+        try {
+            return restTemplate.execute(URI.create(feedUrl), HttpMethod.GET,
+                    request -> {
+                        HttpHeaders headers = request.getHeaders();
+                        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+                        if (conditional && feed.etag != null) {
+                            headers.setIfNoneMatch(feed.etag);
+                        }
+                        if (conditional && feed.lastModified > 0) {
+                            headers.setIfModifiedSince(feed.lastModified);
+                        }
+                    },
+                    response -> {
+                        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            return FeedStatus.NOT_MODIFIED;
+                        }
+                        feed.validated(response.getHeaders().getETag(), response.getHeaders().getLastModified(),
+                                parseRows(response.getBody(), feed.nameIndex, feed.provinceIndex, feed.populationIndex, feed.stateIndex));
+                        return FeedStatus.FETCHED;
+                    });
+        }
+        catch (RestClientException e) {
+            if (feed.rows.isEmpty()) {
+                // Only a cold start falls back to the bundled copy; later syncs keep what they already have.
+                logger.warn("ARSAT feed " + feedUrl + " unavailable, loading " + feed.backupFile + ": " + e.getMessage());
+                try (InputStream file = new ClassPathResource(feed.backupFile).getInputStream()) {
+                    feed.validated(null, -1, parseRows(file, feed.nameIndex, feed.provinceIndex, feed.populationIndex, feed.stateIndex));
+                }
+                return FeedStatus.FETCHED;
+            }
+            logger.warn("ARSAT feed " + feedUrl + " unavailable, keeping its last " + feed.rows.size() + " rows: " + e.getMessage());
+            return FeedStatus.UNAVAILABLE;
+        }
+    }
+
+    public List<Location> parseLocations(InputStream json, int nameIndex, int provinceIndex, int populationIndex, int stateIndex) throws IOException {
+        return parseRows(json, nameIndex, provinceIndex, populationIndex, stateIndex).stream().
+                map(FeedRow::toLocation).
+                collect(Collectors.toList());
+    }
+
+    private List<FeedRow> parseRows(InputStream json, int nameIndex, int provinceIndex, int populationIndex, int stateIndex) throws IOException {
+        List<FeedRow> rows = new ArrayList<>();
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (!moveToDataArray(parser)) {
+                throw new JsonParseException(parser, "ARSAT feed has no data array");
+            }
+            String[] row = new String[Math.max(Math.max(nameIndex, provinceIndex), Math.max(populationIndex, stateIndex)) + 1];
+            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                readRow(parser, row);
+                Integer population = population(row[populationIndex]);
+                // Rows without a numeric population are repeated headers, not locations.
+                if (population != null) {
+                    rows.add(new FeedRow(row[nameIndex], row[provinceIndex], population, row[stateIndex]));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private boolean moveToDataArray(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
         }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
     }
 
-    public List<Location> getLocations(String url, int nameIndex, int provinceIndex, int populationIndex, int stateIndex, String backupFile) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        RestTemplate restTemplate = new RestTemplate();
-        URI uri = URI.create(url);
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        HttpEntity<String> request = new HttpEntity<>("", headers);
-        JsonNode root;
+    private void readRow(JsonParser parser, String[] row) throws IOException {
+        int column = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (column < row.length) {
+                row[column] = token.isScalarValue() ? parser.getValueAsString() : null;
+            }
+            parser.skipChildren();
+            column++;
+        }
+        for (int i = column; i < row.length; i++) {
+            row[i] = null;
+        }
+    }
+
+    private Integer population(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
         try {
-            ResponseEntity<String> result = restTemplate.exchange(uri, HttpMethod.GET, request, String.class);
-            root = objectMapper.readTree(result.getBody());
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
         }
-        catch (HttpServerErrorException | JsonProcessingException e) {
-            FileReader file = new FileReader(backupFile);
-            root = objectMapper.readTree(file);
+    }
+
+    private static class Feed {
+
+        private final String path;
+        private final String backupFile;
+        private final int nameIndex;
+        private final int provinceIndex;
+        private final int populationIndex;
+        private final int stateIndex;
+
+        private volatile String etag;
+        private volatile long lastModified = -1;
+        private volatile List<FeedRow> rows = Collections.emptyList();
+
+        Feed(String path, String backupFile, int nameIndex, int provinceIndex, int populationIndex, int stateIndex) {
+            this.path = path;
+            this.backupFile = backupFile;
+            this.nameIndex = nameIndex;
+            this.provinceIndex = provinceIndex;
+            this.populationIndex = populationIndex;
+            this.stateIndex = stateIndex;
+        }
+
+        void validated(String etag, long lastModified, List<FeedRow> rows) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.rows = rows;
         }
-        Iterator<JsonNode> data = root.get("data").iterator();
-        data.next();
-        return this.buildLocations(data, nameIndex, provinceIndex, populationIndex, stateIndex);
     }
 
-    private List<Location> buildLocations(Iterator<JsonNode> data, int nameIndex, int provinceIndex, int populationIndex, int stateIndex){
-        List<Location> locations = new ArrayList<>();
-        while(data.hasNext()) {
-            JsonNode locationJSON = data.next();
-            locations.add(LocationBuilder.aLocation().
-                    withName(locationJSON.get(nameIndex).asText()).
-                    withProvince(locationJSON.get(provinceIndex).asText()).
-                    withPopulation(locationJSON.get(populationIndex).asInt()).
-                    withState(locationJSON.get(stateIndex).asText()).
-                    build());
+    // Feeds keep plain values between syncs; every sync builds fresh entities from them.
+    private static final class FeedRow {
+
+        private final String name;
+        private final String province;
+        private final int population;
+        private final String state;
+
+        FeedRow(String name, String province, int population, String state) {
+            this.name = name;
+            this.province = province;
+            this.population = population;
+            this.state = state;
         }
-        return locations;
+
+        Location toLocation() {
+            return LocationBuilder.aLocation().
+                    withName(name).
+                    withProvince(province).
+                    withPopulation(population).
+                    withState(state).
+                    build();
+        }
+    }
+
+    private enum FeedStatus {
+        FETCHED,
+        NOT_MODIFIED,
+        UNAVAILABLE
     }
 
+    public static class SyncReport {
+
+        private int newRows;
+        private int changedRows;
+        private int unchangedRows;
+        private int notModifiedFeeds;
+        private int unavailableFeeds;
+        private boolean skipped;
+
+        static SyncReport skipped() {
+            SyncReport report = new SyncReport();
+            report.skipped = true;
+            return report;
+        }
+
+        public int getNewRows() {
+            return newRows;
+        }
+
+        public int getChangedRows() {
+            return changedRows;
+        }
+
+        public int getUnchangedRows() {
+            return unchangedRows;
+        }
+
+        public int getNotModifiedFeeds() {
+            return notModifiedFeeds;
+        }
+
+        public int getUnavailableFeeds() {
+            return unavailableFeeds;
+        }
+
+        public boolean isSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public String toString() {
+            return "[New: " + this.newRows +
+                    " | Changed: " + this.changedRows +
+                    " | Unchanged: " + this.unchangedRows +
+                    " | Not modified feeds: " + this.notModifiedFeeds +
+                    " | Unavailable feeds: " + this.unavailableFeeds + "]";
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class CredentialService {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+    @Value("${security.credential-cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+    @Value("${security.credential-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private PasswordEncoder passwordEncoder;
+    private PasswordEncoder adminPasswordEncoder;
+    private Cache<String, Boolean> verifiedCredentials;
+    private SecretKeySpec digestKey;
+
+    @PostConstruct
+    public void start() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT, bcrypt);
+        passwordEncoder = new DelegatingPasswordEncoder(BCRYPT, encoders);
+        // Only the configured admin password may still be written as {noop}; donor rows must be bcrypt
+        Map<String, PasswordEncoder> adminEncoders = new HashMap<>(encoders);
+        adminEncoders.put("noop", NoOpPasswordEncoder.getInstance());
+        adminPasswordEncoder = new DelegatingPasswordEncoder(BCRYPT, adminEncoders);
+        verifiedCredentials = Caffeine.newBuilder().
+                maximumSize(cacheMaximumSize).
+                expireAfterWrite(cacheTtlSeconds, TimeUnit.SECONDS).
+                recordStats().
+                build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    public String encode(String rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        String digest = digest(rawPassword, encodedPassword);
+        if (verifiedCredentials.getIfPresent(digest) != null) {
+            return true;
+        }
+        boolean matches;
+        try {
+            matches = passwordEncoder.matches(rawPassword, encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (matches) {
+            verifiedCredentials.put(digest, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    public boolean matchesAdmin(String rawPassword, String configuredPassword) {
+        if (rawPassword == null || configuredPassword == null) {
+            return false;
+        }
+        try {
+            return adminPasswordEncoder.matches(rawPassword, configuredPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public long cachedCredentials() {
+        return verifiedCredentials.estimatedSize();
+    }
+
+    private String digest(String rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
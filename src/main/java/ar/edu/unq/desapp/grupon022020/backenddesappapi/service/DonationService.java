@@ -3,20 +3,27 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.mail.MailReturnedDonation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ReturnedDonation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.DonationRepository;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.ProjectRepository;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.Comparator;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class DonationService {
@@ -27,42 +34,64 @@ public class DonationService {
     private UserRepository userRepository;
     @Autowired
     private ProjectRepository projectRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Transactional
     public Donation save(Donation donation) {
         return this.donationRepository.save(donation);
     }
 
+    @Transactional
+    public List<Donation> saveAll(List<Donation> donations) {
+        return this.donationRepository.saveAll(donations);
+    }
+
     public List<Donation> findAll() {
         return this.donationRepository.findAll();
     }
 
-    public Donation findById(Integer id) throws DataNotFoundException {
-        if(donationRepository.existsById(id)){
-            return this.donationRepository.findById(id).get();
-        }
-        else {
-            throw new DataNotFoundException("Donation " + id + " does not exists");
+    public List<Donation> findPage(Integer after, int limit) {
+        return this.donationRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0 : after, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Donation> action) {
+        try (Stream<Donation> donations = this.donationRepository.streamAll()) {
+            donations.forEach(donation -> {
+                action.accept(donation);
+                entityManager.detach(donation);
+            });
         }
     }
 
+    public Donation findById(Integer id) throws DataNotFoundException {
+        return this.donationRepository.findById(id).
+                orElseThrow(() -> new DataNotFoundException("Donation " + id + " does not exists"));
+    }
+
     @MailReturnedDonation
-    public void returnDonation(Donation donation, Donor user) {
-        user.undoDonation(donation);
+    @Transactional
+    public List<ReturnedDonation> refundDonations(String projectName) {
+        List<ReturnedDonation> returnedDonations = donationRepository.getReturnedDonations(projectName);
+        userRepository.refundDonorsOfProject(projectName);
+        donationRepository.deleteDonationsOfProject(projectName);
+        return returnedDonations;
     }
 
+    @Retryable(value = ConcurrencyFailureException.class,
+            maxAttemptsExpression = "${donation.retry.max-attempts:25}",
+            backoff = @Backoff(delayExpression = "${donation.retry.backoff-millis:5}", multiplier = 2, maxDelay = 250, random = true))
+    @Transactional
     public Donation donate(String nickname, String projectName, String comment, int amount) throws DataNotFoundException, InvalidDonationException {
-        if(!userRepository.existsById(nickname)){
-            throw new DataNotFoundException("User " + nickname + " does not exist");
-        }
-        if(!projectRepository.existsById(projectName)){
-            throw new DataNotFoundException("Project " + projectName + " does not exist");
-        }
-        Donor donor = userRepository.findById(nickname).get();
-        Project project = projectRepository.findById(projectName).get();
+        Donor donor = userRepository.findById(nickname).
+                orElseThrow(() -> new DataNotFoundException("User " + nickname + " does not exist"));
+        Project project = projectRepository.findById(projectName).
+                orElseThrow(() -> new DataNotFoundException("Project " + projectName + " does not exist"));
         Donation donation;
         try {
-            donation = donor.donate(BigDecimal.valueOf(amount), comment, project);
+            boolean firstToProject = !donationRepository.existsByProjectNameAndDonorNickname(projectName, nickname);
+            donation = donor.donate(Money.of(amount), comment, project, firstToProject);
             save(donation);
         } catch (InvalidDonationException e) {
             throw new InvalidDonationException(e.getMessage());
@@ -71,12 +100,6 @@ public class DonationService {
     }
 
     public List<Donation> getTopTenBiggestDonations() {
-        List<Donation> donations = donationRepository.findAll();
-        List<Donation> sortedDonations =
-                donations.stream().
-                        sorted(Comparator.comparing(Donation::getAmount).reversed()).
-                        limit(10).
-                        collect(Collectors.toList());
-        return sortedDonations;
+        return donationRepository.findTop10ByOrderByAmountDesc();
     }
 }
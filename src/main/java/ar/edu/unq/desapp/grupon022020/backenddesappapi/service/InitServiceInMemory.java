@@ -2,25 +2,31 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import javax.annotation.PostConstruct;
-import java.math.BigDecimal;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Service
-@Transactional
 public class InitServiceInMemory {
 
     protected final Log logger = LogFactory.getLog(getClass());
@@ -36,18 +42,61 @@ public class InitServiceInMemory {
     private ProjectService projectService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private DonationService donationService;
+    @Autowired
+    private WarmUpHealthIndicator warmUpHealthIndicator;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
-    @PostConstruct
-    public void initialize() {
-        if (className.equals("org.h2.Driver")) {
-            logger.warn("Init Data Using H2 DB");
-            fireInitialData();
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize(ApplicationReadyEvent event) {
+        long startupMillis = event.getTimestamp() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        record("context", startupMillis);
+        if (!className.equals("org.h2.Driver")) {
+            warmUpHealthIndicator.loaded(0);
+            return;
         }
+        logger.warn("Init Data Using H2 DB");
+        ExecutorService warmUp = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        warmUp.execute(this::fireInitialData);
+        warmUp.shutdown();
     }
 
     private void fireInitialData() {
-        webService.loadLocationsFromARSAT();
+        long start = System.nanoTime();
+        try {
+            phase("arsat", webService::loadLocationsFromARSAT);
+            phase("data", this::loadInitialData);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            record("warmup", elapsed);
+            warmUpHealthIndicator.loaded(elapsed);
+        } catch (RuntimeException e) {
+            logger.error("Init Data failed", e);
+            warmUpHealthIndicator.failed(e);
+        }
+    }
 
+    private void phase(String name, Runnable phase) {
+        long start = System.nanoTime();
+        phase.run();
+        record(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void record(String phase, long millis) {
+        logger.info("Startup phase " + phase + " took " + millis + " ms");
+        Timer.builder("startup.phase").
+                description("Duration of each application startup phase").
+                tag("phase", phase).
+                register(meterRegistry).
+                record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    private void loadInitialData() {
         Location location_1 = LocationBuilder.aLocation().withName("Santa Rita").withPopulation(1200).withProvince("Misiones").withState("En Planificación").build();
         Location location_2 = LocationBuilder.aLocation().withName("Rio Tercero").withPopulation(710).withProvince("Cordoba").withState("En Planificación").build();
         Location location_3 = LocationBuilder.aLocation().withName("Puerto Iguazu").withPopulation(1530).withProvince("Misiones").withState("En Planificación").build();
@@ -76,16 +125,20 @@ public class InitServiceInMemory {
         locationService.save(location_12);
         locationService.save(location_13);
 
-        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withName("Juan J").withMail("argentinaconectada2020@gmail.com").withPassword("123").withMoney(BigDecimal.valueOf(9000)).build();
-        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withName("Maria M").withMail("argentinaconectada2020@gmail.com").withPassword("456").withMoney(BigDecimal.valueOf(8000)).build();
-        Donor donor_3 = DonorBuilder.aDonorUser().withNickname("fabian789").withName("Fabian F").withMail("argentinaconectada2020@gmail.com").withPassword("789").withMoney(BigDecimal.valueOf(7500)).build();
-        Donor donor_4 = DonorBuilder.aDonorUser().withNickname("julia000").withName("Julia J").withMail("argentinaconectada2020@gmail.com").withPassword("000").withMoney(BigDecimal.valueOf(3300)).build();
-        Donor donor_5 = DonorBuilder.aDonorUser().withNickname("oscar111").withName("Oscar O").withMail("argentinaconectada2020@gmail.com").withPassword("111").withMoney(BigDecimal.valueOf(2450)).build();
-        userService.save(donor_1);
-        userService.save(donor_2);
-        userService.save(donor_3);
-        userService.save(donor_4);
-        userService.save(donor_5);
+        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withName("Juan J").withMail("argentinaconectada2020+juan123@gmail.com").withPassword("123").withMoney(Money.of(9000)).build();
+        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withName("Maria M").withMail("argentinaconectada2020+maria456@gmail.com").withPassword("456").withMoney(Money.of(8000)).build();
+        Donor donor_3 = DonorBuilder.aDonorUser().withNickname("fabian789").withName("Fabian F").withMail("argentinaconectada2020+fabian789@gmail.com").withPassword("789").withMoney(Money.of(7500)).build();
+        Donor donor_4 = DonorBuilder.aDonorUser().withNickname("julia000").withName("Julia J").withMail("argentinaconectada2020+julia000@gmail.com").withPassword("000").withMoney(Money.of(3300)).build();
+        Donor donor_5 = DonorBuilder.aDonorUser().withNickname("oscar111").withName("Oscar O").withMail("argentinaconectada2020+oscar111@gmail.com").withPassword("111").withMoney(Money.of(2450)).build();
+        try {
+            userService.createDonorUser(donor_1);
+            userService.createDonorUser(donor_2);
+            userService.createDonorUser(donor_3);
+            userService.createDonorUser(donor_4);
+            userService.createDonorUser(donor_5);
+        } catch (DataNotFoundException e) {
+            throw new IllegalStateException("Initial donors could not be created", e);
+        }
 
         Project project_1 = ProjectBuilder.aProject().withName("Conectando Santa Rita").withLocation(location_1).withFactor(50).withClosurePercentage(75).build();
         project_1.setStartDate(LocalDate.now().minusDays(20));
@@ -102,23 +155,23 @@ public class InitServiceInMemory {
         Project project_5 = ProjectBuilder.aProject().withName("Todos con Santa Clara").withLocation(location_5).withFactor(24).withClosurePercentage(77).build();
         project_5.setStartDate(LocalDate.now().minusDays(130));
         project_5.setFinishDate(LocalDate.now().minusDays(44));
-        project_5.setStatus(ProjectStatus.INCOMPLETE.name());
+        project_5.setStatus(ProjectStatus.INCOMPLETE);
         Project project_6 = ProjectBuilder.aProject().withName("Mercedes 2.0").withLocation(location_6).withFactor(31).withClosurePercentage(85).build();
         project_6.setStartDate(LocalDate.now().minusDays(180));
         project_6.setFinishDate(LocalDate.now().minusDays(3));
-        project_6.setStatus(ProjectStatus.CANCELLED.name());
+        project_6.setStatus(ProjectStatus.CANCELLED);
         Project project_7 = ProjectBuilder.aProject().withName("Conectemos Los Robles").withLocation(location_7).withFactor(26).withClosurePercentage(70).build();
         project_7.setStartDate(LocalDate.now().minusDays(50));
         project_7.setFinishDate(LocalDate.now().minusDays(30));
-        project_7.setStatus(ProjectStatus.INCOMPLETE.name());
+        project_7.setStatus(ProjectStatus.INCOMPLETE);
         Project project_8 = ProjectBuilder.aProject().withName("Lago Puelo esta esperandote").withLocation(location_8).withFactor(12).withClosurePercentage(40).build();
         project_8.setStartDate(LocalDate.now().minusDays(70));
         project_8.setFinishDate(LocalDate.now().minusDays(40));
-        project_8.setStatus(ProjectStatus.COMPLETE.name());
+        project_8.setStatus(ProjectStatus.COMPLETE);
         Project project_9 = ProjectBuilder.aProject().withName("Fibra optica en Trevelin").withLocation(location_9).withFactor(14).withClosurePercentage(53).build();
         project_9.setStartDate(LocalDate.now().minusDays(20));
         project_9.setFinishDate(LocalDate.now().plusDays(20));
-        project_9.setStatus(ProjectStatus.COMPLETE.name());
+        project_9.setStatus(ProjectStatus.COMPLETE);
         Project project_10 = ProjectBuilder.aProject().withName("General Campos conectadisimo").withLocation(location_10).withFactor(10).withClosurePercentage(39).build();
         project_10.setStartDate(LocalDate.now().minusDays(50));
         project_10.setFinishDate(LocalDate.now().plusDays(67));
@@ -147,30 +200,25 @@ public class InitServiceInMemory {
         projectService.save(project_13);
 
         try {
-            donor_1.donate(BigDecimal.valueOf(1200), "Esta es mi primera donación!", project_1);
-            donor_1.donate(BigDecimal.valueOf(200), "Esta es mi segunda donación!", project_1);
-            donor_1.donate(BigDecimal.valueOf(123), "Esta es mi tercer donación!", project_1);
-            donor_1.donate(BigDecimal.valueOf(300), "Esta es mi cuarta donación!", project_2);
-            donor_1.donate(BigDecimal.valueOf(400), "Esta es mi quinta donación!", project_2);
-            donor_2.donate(BigDecimal.valueOf(500), "Vamos!", project_1);
-            donor_2.donate(BigDecimal.valueOf(2000), "Ayudando un poco...", project_1);
-            donor_3.donate(BigDecimal.valueOf(666), "Pronto donaré más", project_3);
-            donor_4.donate(BigDecimal.valueOf(120), "Buena suerte!", project_1);
-            donor_4.donate(BigDecimal.valueOf(90), "Puedo donar", project_11);
-            donor_4.donate(BigDecimal.valueOf(25), "Me sobra un poco", project_12);
-            donor_4.donate(BigDecimal.valueOf(57), "Un poco mas", project_12);
-            donor_5.donate(BigDecimal.valueOf(70), "Buena suerte para todos!", project_1);
-            donor_5.donate(BigDecimal.valueOf(50), "Ayudando", project_11);
-            donor_5.donate(BigDecimal.valueOf(25), "Yo conozco Rancul", project_12);
-            donor_5.donate(BigDecimal.valueOf(25), "Mi tia vive en Parera", project_13);
-            donor_5.donate(BigDecimal.valueOf(75), "Mi tio tambien vive en Parera", project_13);
-            userService.save(donor_1);
-            userService.save(donor_2);
-            userService.save(donor_3);
-            userService.save(donor_4);
-            userService.save(donor_5);
-        } catch (InvalidDonationException e) {
-            e.printStackTrace();
+            donationService.donate(donor_1.getNickname(), project_1.getName(), "Esta es mi primera donación!", 1200);
+            donationService.donate(donor_1.getNickname(), project_1.getName(), "Esta es mi segunda donación!", 200);
+            donationService.donate(donor_1.getNickname(), project_1.getName(), "Esta es mi tercer donación!", 123);
+            donationService.donate(donor_1.getNickname(), project_2.getName(), "Esta es mi cuarta donación!", 300);
+            donationService.donate(donor_1.getNickname(), project_2.getName(), "Esta es mi quinta donación!", 400);
+            donationService.donate(donor_2.getNickname(), project_1.getName(), "Vamos!", 500);
+            donationService.donate(donor_2.getNickname(), project_1.getName(), "Ayudando un poco...", 2000);
+            donationService.donate(donor_3.getNickname(), project_3.getName(), "Pronto donaré más", 666);
+            donationService.donate(donor_4.getNickname(), project_1.getName(), "Buena suerte!", 120);
+            donationService.donate(donor_4.getNickname(), project_11.getName(), "Puedo donar", 90);
+            donationService.donate(donor_4.getNickname(), project_12.getName(), "Me sobra un poco", 25);
+            donationService.donate(donor_4.getNickname(), project_12.getName(), "Un poco mas", 57);
+            donationService.donate(donor_5.getNickname(), project_1.getName(), "Buena suerte para todos!", 70);
+            donationService.donate(donor_5.getNickname(), project_11.getName(), "Ayudando", 50);
+            donationService.donate(donor_5.getNickname(), project_12.getName(), "Yo conozco Rancul", 25);
+            donationService.donate(donor_5.getNickname(), project_13.getName(), "Mi tia vive en Parera", 25);
+            donationService.donate(donor_5.getNickname(), project_13.getName(), "Mi tio tambien vive en Parera", 75);
+        } catch (InvalidDonationException | DataNotFoundException e) {
+            throw new IllegalStateException("Initial donations could not be made", e);
         }
     }
 }
@@ -2,35 +2,88 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.LocationHash;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.LocationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class LocationService {
 
     @Autowired
     private LocationRepository repository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
 
     @Transactional
     public Location save(Location location) {
         return this.repository.save(location);
     }
 
-    public List<Location> findAll() { return this.repository.findAll(); }
+    @Transactional
+    public int saveAll(List<Location> locations) {
+        Set<String> existingNames = this.repository.findAllNames();
+        int inserted = 0;
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            if (existingNames.contains(location.getName())) {
+                entityManager.merge(location);
+            } else {
+                entityManager.persist(location);
+                inserted++;
+            }
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        return inserted;
+    }
 
-    public Location findById(String name) throws DataNotFoundException {
-        if(repository.existsById(name)){
-            return this.repository.findById(name).get();
+    public Map<String, Long> findSyncHashes() {
+        Map<String, Long> hashes = new HashMap<>();
+        for (LocationHash location: this.repository.findAllHashes()) {
+            hashes.put(location.getName(), location.getSyncHash());
         }
-        else {
-            throw new DataNotFoundException("Location " + name + " does not exists");
+        return hashes;
+    }
+
+    public List<Location> findAll() { return this.repository.findAll(); }
+
+    public List<Location> findPage(String after, int limit) {
+        return this.repository.findByNameGreaterThanOrderByNameAsc(after == null ? "" : after, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<Location> action) {
+        try (Stream<Location> locations = this.repository.streamAll()) {
+            locations.forEach(location -> {
+                action.accept(location);
+                entityManager.detach(location);
+            });
         }
     }
 
+    public Location findById(String name) throws DataNotFoundException {
+        return this.repository.findById(name).
+                orElseThrow(() -> new DataNotFoundException("Location " + name + " does not exists"));
+    }
+
     public void createLocation(Location location) throws DataNotFoundException {
         if (repository.existsById(location.getName())){
             throw new DataNotFoundException("Location " + location.getName() + " already exists");
@@ -0,0 +1,155 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMail;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMailStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.OutboxMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Service
+public class MailOutboxService {
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+    @Autowired
+    private SendEmailService sendEmailService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${mail.outbox.workers:4}")
+    private int workers;
+    @Value("${mail.outbox.batch-size:100}")
+    private int batchSize;
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${mail.outbox.backoff-millis:30000}")
+    private long backoffMillis;
+    @Value("${mail.outbox.lease-millis:300000}")
+    private long leaseMillis;
+
+    private final Logger logger = LoggerFactory.getLogger(MailOutboxService.class);
+    private final AtomicLong pendingMails = new AtomicLong();
+    private final AtomicLong failedMails = new AtomicLong();
+    private ExecutorService workerPool;
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workerPool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), runnable -> {
+                    Thread thread = new Thread(runnable, "mail-outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        Gauge.builder("mail.outbox.pending", pendingMails, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("mail.outbox.failed", failedMails, AtomicLong::get).register(meterRegistry);
+        sentCounter = meterRegistry.counter("mail.outbox.deliveries", "result", "sent");
+        retriedCounter = meterRegistry.counter("mail.outbox.deliveries", "result", "retry");
+        failedCounter = meterRegistry.counter("mail.outbox.deliveries", "result", "failed");
+    }
+
+    @PreDestroy
+    public void stop() {
+        workerPool.shutdown();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, String subject, String text) {
+        outboxMailRepository.save(new OutboxMail(to, subject, text, LocalDateTime.now()));
+    }
+
+    public int dispatchDue() {
+        List<OutboxMail> dueMails = claimDue();
+        List<Callable<Boolean>> deliveries = dueMails.stream().
+                map(mail -> (Callable<Boolean>) () -> deliver(mail)).
+                collect(Collectors.toList());
+        int sent = 0;
+        try {
+            for (Future<Boolean> delivery: workerPool.invokeAll(deliveries)) {
+                try {
+                    if (delivery.get()) {
+                        sent++;
+                    }
+                } catch (ExecutionException e) {
+                    logger.error("Outbox delivery failed unexpectedly", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        refreshQueueDepth();
+        return sent;
+    }
+
+    private List<OutboxMail> claimDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = outboxMailRepository.findDueIds(OutboxMailStatus.PENDING, now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Moving nextAttemptAt past the lease hides the claimed rows from other instances polling the
+        // same table. Rows another instance claimed first no longer match; a crash only delays its rows.
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime leaseUntil = now.plus(leaseMillis, ChronoUnit.MILLIS);
+        if (outboxMailRepository.claim(claimToken, leaseUntil, dueIds, OutboxMailStatus.PENDING, now) == 0) {
+            return Collections.emptyList();
+        }
+        return outboxMailRepository.findByClaimToken(claimToken);
+    }
+
+    private boolean deliver(OutboxMail mail) {
+        boolean sent = false;
+        try {
+            sendEmailService.sendSimpleMessage(mail.getRecipient(), mail.getSubject(), mail.getText());
+            mail.markSent();
+            sentCounter.increment();
+            sent = true;
+        } catch (RuntimeException e) {
+            long delay = backoffMillis * (1L << Math.min(mail.getAttempts(), 10));
+            mail.markFailedAttempt(e.getMessage(), maxAttempts, LocalDateTime.now().plus(delay, ChronoUnit.MILLIS));
+            if (mail.isPending()) {
+                retriedCounter.increment();
+                logger.warn("Mail to " + mail.getRecipient() + " failed, retrying in " + delay + "ms");
+            } else {
+                failedCounter.increment();
+                logger.error("Mail to " + mail.getRecipient() + " failed after " + mail.getAttempts() + " attempts");
+            }
+        }
+        outboxMailRepository.save(mail);
+        return sent;
+    }
+
+    private void refreshQueueDepth() {
+        pendingMails.set(outboxMailRepository.countByStatus(OutboxMailStatus.PENDING));
+        failedMails.set(outboxMailRepository.countByStatus(OutboxMailStatus.FAILED));
+    }
+}
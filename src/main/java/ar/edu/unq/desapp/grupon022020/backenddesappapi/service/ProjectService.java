@@ -1,39 +1,91 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidProjectOperationException;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.DonationRepository;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.LocationRepository;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectCreationCheck;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.ProjectRepository;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProjectService {
 
+    public static final String ENDING_CACHE = "projectsEnding";
+
     @Autowired
     private ProjectRepository projectRepository;
     @Autowired
-    private LocationRepository locationRepository;
-    @Autowired
-    private UserRepository userRepository;
+    private DonationService donationService;
     @Autowired
-    private DonationRepository donationRepository;
+    private TransactionTemplate transactionTemplate;
     @Autowired
-    private DonationService donationService;
+    private MeterRegistry meterRegistry;
+
+    @Value("${project.closure.workers:4}")
+    private int closureWorkers;
+    @Value("${project.closure.chunk-size:100}")
+    private int closureChunkSize;
+
+    private final Logger logger = LoggerFactory.getLogger(ProjectService.class);
+    private ExecutorService closurePool;
+    private Counter closedProjects;
+    private Counter refundedDonations;
+    private Counter failedClosures;
+    private Timer closureTimer;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        closurePool = new ThreadPoolExecutor(closureWorkers, closureWorkers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(closureChunkSize), runnable -> {
+                    Thread thread = new Thread(runnable, "project-closure-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        closedProjects = meterRegistry.counter("project.closure.projects");
+        refundedDonations = meterRegistry.counter("project.closure.refunds");
+        failedClosures = meterRegistry.counter("project.closure.failures");
+        closureTimer = meterRegistry.timer("project.closure.duration");
+    }
+
+    @PreDestroy
+    public void stop() {
+        closurePool.shutdown();
+    }
 
     @Transactional
     public Project save(Project project) {
@@ -44,18 +96,30 @@ public class ProjectService {
         return this.projectRepository.findAll();
     }
 
-    public Project findById(String name) throws DataNotFoundException {
-        if(projectRepository.existsById(name)){
-            return this.projectRepository.findById(name).get();
-        }
-        else {
-            throw new DataNotFoundException("Project " + name + " does not exists");
+    public List<ProjectSummary> findAllSummaries() {
+        return this.projectRepository.findAllSummaries();
+    }
+
+    public List<ProjectSummary> findSummariesPage(String after, int limit) {
+        return this.projectRepository.findSummariesAfter(after == null ? "" : after, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllSummaries(Consumer<ProjectSummary> action) {
+        try (Stream<ProjectSummary> projects = this.projectRepository.streamAllSummaries()) {
+            projects.forEach(action);
         }
     }
 
+    public Project findById(String name) throws DataNotFoundException {
+        return this.projectRepository.findById(name).
+                orElseThrow(() -> new DataNotFoundException("Project " + name + " does not exists"));
+    }
+
+    @CacheEvict(cacheNames = ENDING_CACHE, allEntries = true)
+    @Transactional
     public Project createProject(String name, int factor, int closurePercentage, String startDate, int durationInDays, String locationName) throws InvalidProjectOperationException, DataNotFoundException {
-        validateProjectCreation(name, LocalDate.parse(startDate), locationName);
-        Location location = locationRepository.findById(locationName).get();
+        Location location = validateProjectCreation(name, LocalDate.parse(startDate), locationName);
         Project project = ProjectBuilder.aProject().
                 withName(name).
                 withFactor(factor).
@@ -63,127 +127,127 @@ public class ProjectService {
                 withStartDate(LocalDate.parse(startDate)).
                 withDurationInDays(durationInDays).
                 withLocation(location).
-                withStatus(ProjectStatus.ACTIVE.name()).
+                withStatus(ProjectStatus.ACTIVE).
                 build();
         save(project);
         return project;
     }
 
-    private void validateProjectCreation(String name, LocalDate startDate, String locationName) throws InvalidProjectOperationException, DataNotFoundException {
-        if(!locationRepository.existsById(locationName)){
-            throw new DataNotFoundException("There is no location with name " + locationName);
+    private Location validateProjectCreation(String name, LocalDate startDate, String locationName) throws InvalidProjectOperationException, DataNotFoundException {
+        ProjectCreationCheck check = projectRepository.checkProjectCreation(locationName, name,
+                ProjectStatus.ACTIVE, ProjectStatus.COMPLETE);
+        Location location = check.getLocation();
+        List<String> violations = new ArrayList<>();
+        if (location == null) {
+            violations.add("There is no location with name " + locationName);
         }
-        if(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())){
-            throw new InvalidProjectOperationException("There is already an open project for location " + locationName);
+        if (check.getActiveProjects() > 0) {
+            violations.add("There is already an open project for location " + locationName);
         }
-        if(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.COMPLETE.name())){
-            throw new InvalidProjectOperationException("There is already a complete project for location " + locationName);
+        if (check.getCompleteProjects() > 0) {
+            violations.add("There is already a complete project for location " + locationName);
         }
-        if(projectRepository.existsById(name)){
-            throw new InvalidProjectOperationException("There is already a project with name " + name);
+        if (check.getProjectsWithName() > 0) {
+            violations.add("There is already a project with name " + name);
         }
         if (startDate.isBefore(LocalDate.now())) {
-            throw new InvalidProjectOperationException("Start day of " + startDate.toString() + " for project " + name + " is not valid");
+            violations.add("Start day of " + startDate.toString() + " for project " + name + " is not valid");
+        }
+        if (location == null) {
+            throw new DataNotFoundException(String.join("; ", violations));
         }
+        if (!violations.isEmpty()) {
+            throw new InvalidProjectOperationException(String.join("; ", violations));
+        }
+        return location;
     }
 
+    @CacheEvict(cacheNames = ENDING_CACHE, allEntries = true)
+    @Transactional
     public void cancelProject(String name) throws DataNotFoundException, InvalidProjectOperationException {
-        Project projectToCancel = findById(name);
+        Project projectToCancel = projectRepository.findById(name).
+                orElseThrow(() -> new DataNotFoundException("Project " + name + " does not exists"));
         validateProjectCancellation(projectToCancel);
-        List<Donation> donationsToReturn = projectToCancel.getDonations();
-        List<Donor> donorsList = donorsList(projectToCancel);
-        revertDonations(donationsToReturn, projectToCancel, donorsList);
+        returnDonations(projectToCancel);
+        projectToCancel.cancel();
+        projectRepository.save(projectToCancel);
     }
 
-    private void validateProjectCancellation(Project project) throws DataNotFoundException, InvalidProjectOperationException {
-        if(!projectRepository.existsById(project.getName())){
-            throw new DataNotFoundException("Project " + project.getName() + " does not exists");
-        }
-        if(!project.getStatus().equals(ProjectStatus.ACTIVE.name())){
+    private void validateProjectCancellation(Project project) throws InvalidProjectOperationException {
+        if(project.getStatus() != ProjectStatus.ACTIVE){
             throw new InvalidProjectOperationException("Project " + project.getName() + " already has status " + project.getStatus());
         }
     }
 
-    private void revertDonations(List<Donation> donationsToReturn, Project projectToCancel, List<Donor> donorsList) {
-        for (Donation donation: donationsToReturn)
-        {
-            donationRepository.deleteDonation(donation.getId());
-        }
-        projectToCancel.cancel();
-        returnDonations(projectToCancel, donorsList);
-        for (Donor user: donorsList)
-        {
-            userRepository.save(user);
-        }
-        projectRepository.save(projectToCancel);
+    private int returnDonations(Project project) {
+        return donationService.refundDonations(project.getName()).size();
     }
 
-    private void returnDonations(Project projectToCancel, List<Donor> donorsList) {
-        List<Donation> donationsToReturn = projectToCancel.getDonations();
-        donationsToReturn.forEach(donation -> donationService.returnDonation(donation, getUser(donation.getDonorNickname(), donorsList)));
-        projectToCancel.undoDonations();
-    }
-
-    private Donor getUser(String donorNickname, List<Donor> donorsList) {
-        return donorsList.stream().filter(donorUser -> donorUser.getNickname().equals(donorNickname)).findFirst().get();
+    @CacheEvict(cacheNames = ENDING_CACHE, allEntries = true)
+    public int closeFinishedProjects() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        int closed = 0;
+        int refunded = 0;
+        String after = "";
+        List<String> finishingProjects;
+        do {
+            finishingProjects = projectRepository.findNamesWithStatusAndFinishDate(ProjectStatus.ACTIVE, today,
+                    after, PageRequest.of(0, closureChunkSize));
+            List<Callable<Integer>> closures = finishingProjects.stream().
+                    map(name -> (Callable<Integer>) () -> closeFinishedProject(name)).
+                    collect(Collectors.toList());
+            try {
+                for (Future<Integer> closure: closurePool.invokeAll(closures)) {
+                    try {
+                        int refunds = closure.get();
+                        if (refunds >= 0) {
+                            closed++;
+                            refunded += refunds;
+                        }
+                    } catch (ExecutionException e) {
+                        failedClosures.increment();
+                        logger.error("Project closure failed", e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (!finishingProjects.isEmpty()) {
+                after = finishingProjects.get(finishingProjects.size() - 1);
+            }
+        } while (finishingProjects.size() == closureChunkSize);
+        closedProjects.increment(closed);
+        refundedDonations.increment(refunded);
+        closureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("Closed {} finished projects refunding {} donations in {} ms", closed, refunded,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return closed;
     }
 
-    public void closeFinishedProjects() {
-        List<Project> activeProjects = projectRepository.getProjectsWithStatus(ProjectStatus.ACTIVE.name());
-        List<Project> finishingProjects = activeProjects.stream().
-                filter(project -> project.getFinishDate().isEqual(LocalDate.now()) && !project.hasReachedGoal()).
-                collect(Collectors.toList());
-        for (Project project: finishingProjects)
-        {
-            List<Donation> donationsToReturn = project.getDonations();
-            for (Donation donation: donationsToReturn)
-            {
-                donationRepository.deleteDonation(donation.getId());
-            }
-            List<Donor> donorsList = donorsList(project);
-            returnDonations(project, donorsList);
-            project.setStatus(ProjectStatus.INCOMPLETE.name());
-            for (Donor user: donorsList)
-            {
-                userRepository.save(user);
+    private int closeFinishedProject(String name) {
+        return transactionTemplate.execute(status -> {
+            Project project = projectRepository.findById(name).orElse(null);
+            if (project == null || project.getStatus() != ProjectStatus.ACTIVE || project.hasReachedGoal()) {
+                return -1;
             }
+            int refunded = returnDonations(project);
+            project.undoDonations();
+            project.setStatus(ProjectStatus.INCOMPLETE);
             projectRepository.save(project);
-        }
+            return refunded;
+        });
     }
 
     public List<Location> getTopTenDonationStarvedLocations() {
-        List<Project> projects = projectRepository.getProjectsWithStatus(ProjectStatus.ACTIVE.name());
-        List<Location> sortedLocations =
-                projects.stream().
-                        sorted(Comparator.comparing(this::getLastDonationDate)).
-                        map(Project::getLocation).
-                        limit(10).
-                        collect(Collectors.toList());
-        return sortedLocations;
-    }
-
-    private List<Donor> donorsList(Project project){
-        List<String> donorsNicknames = project.donors();
-        List<Donor> donorsList = userRepository.findAll().stream().
-                filter(donorUser -> donorsNicknames.contains(donorUser.getNickname())).
-                collect(Collectors.toList());
-        return donorsList;
-    }
-
-    private LocalDate getLastDonationDate(Project project) {
-        return project
-                .lastDonation()
-                .map(Donation::getDate)
-                .orElse(project.getStartDate());
-    }
-
-    public List<Project> findAllEndingThisMonth() {
-        List<Project> allProjects = this.findAll();
-        List<Project> filteredProjects = allProjects.stream().
-                filter(project -> project.getStatus() == ProjectStatus.ACTIVE.name() &&
-                        project.getFinishDate().getYear() == LocalDate.now().getYear() &&
-                        project.getFinishDate().getMonth() == LocalDate.now().getMonth()).
-                collect(Collectors.toList());
-        return filteredProjects;
+        return projectRepository.getLocationsByLastActivity(ProjectStatus.ACTIVE, PageRequest.of(0, 10));
+    }
+
+    @Cacheable(cacheNames = ENDING_CACHE, key = "T(java.time.YearMonth).now()")
+    public List<ProjectSummary> findAllEndingThisMonth() {
+        YearMonth month = YearMonth.now();
+        return this.projectRepository.findSummariesWithStatusFinishingBetween(ProjectStatus.ACTIVE,
+                month.atDay(1), month.atEndOfMonth());
     }
 }
@@ -2,6 +2,9 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -15,16 +18,39 @@ import java.util.List;
 @Service
 public class SchedulerService {
 
+    protected final Log logger = LogFactory.getLog(getClass());
+
     @Autowired
     private ProjectService projectService;
     @Autowired
     private DonationService donationService;
+    @Autowired
+    private MailOutboxService mailOutboxService;
+    @Autowired
+    private ARSATWebService arsatWebService;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Scheduled(cron = "0 55 23 ? * * ")
     public void closeFinishedProjects(){
         projectService.closeFinishedProjects();
     }
 
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-millis:5000}")
+    public void dispatchOutboxMails(){
+        mailOutboxService.dispatchDue();
+    }
+
+    @Scheduled(cron = "${arsat.sync.cron:0 0 4 ? * * }")
+    public void syncARSATLocations(){
+        try {
+            arsatWebService.syncLocations();
+        } catch (IOException | RuntimeException e) {
+            logger.error("ARSAT sync failed", e);
+            meterRegistry.counter("arsat.sync.failures").increment();
+        }
+    }
+
     @Scheduled(cron = "0 59 23 ? * 7 ")
     public void generateRankings(){
         List<Location> locationsRanking = projectService.getTopTenDonationStarvedLocations();
@@ -1,8 +1,12 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -10,10 +14,27 @@ import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.mail.MessagingException;
+import javax.mail.Transport;
 import javax.mail.internet.MimeMessage;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 public class SendEmailService {
@@ -22,6 +43,15 @@ public class SendEmailService {
     private JavaMailSender emailSender;
     @Value("${spring.mail.username:NONE}")
     private String senderUsername;
+    @Value("${mail.bulk.workers:4}")
+    private int bulkWorkers;
+    @Value("${mail.bulk.progress-interval:50}")
+    private int bulkProgressInterval;
+    @Value("${mail.bulk.rate-per-second:20}")
+    private double bulkRatePerSecond;
+
+    private final Logger logger = LoggerFactory.getLogger(SendEmailService.class);
+    private ExecutorService bulkPool;
     /*
     @Value("${spring.mail.host:NONE}")
     private String host;
@@ -31,6 +61,21 @@ public class SendEmailService {
     private String senderPassword;
     */
 
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        bulkPool = Executors.newFixedThreadPool(Math.max(1, bulkWorkers), runnable -> {
+            Thread thread = new Thread(runnable, "mail-bulk-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        bulkPool.shutdown();
+    }
+
     public void sendSimpleMessage(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom(senderUsername);
@@ -52,6 +97,133 @@ public class SendEmailService {
         emailSender.send(message);
     }
 
+    public int sendBulkMessageWithAttachment(List<DonorSummary> recipients, String subject, Function<DonorSummary, String> textBuilder,
+                                             String pathToAttachment, String attachmentFilename) throws IOException, InterruptedException {
+        ByteArrayResource attachment = new ByteArrayResource(Files.readAllBytes(Paths.get(pathToAttachment)));
+        RateLimiter rateLimiter = new RateLimiter(bulkRatePerSecond);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        List<Callable<Void>> workers = new ArrayList<>();
+        int chunkSize = Math.max(1, (recipients.size() + bulkWorkers - 1) / bulkWorkers);
+        for (int from = 0; from < recipients.size(); from += chunkSize) {
+            List<DonorSummary> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+            workers.add(() -> {
+                sendChunk(chunk, subject, textBuilder, attachment, attachmentFilename, rateLimiter, sent, failed, recipients.size(), start);
+                return null;
+            });
+        }
+        for (Future<Void> worker: bulkPool.invokeAll(workers)) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                logger.error("Bulk mail worker stopped before finishing its recipients", e.getCause());
+            }
+        }
+        // Recipients a stopped worker never reached are failures too
+        failed.addAndGet(recipients.size() - sent.get() - failed.get());
+        logger.warn("Bulk mail finished: " + sent.get() + " sent, " + failed.get() + " failed, " + throughput(sent.get(), start) + " mails/s");
+        return sent.get();
+    }
+
+    private void sendChunk(List<DonorSummary> chunk, String subject, Function<DonorSummary, String> textBuilder, ByteArrayResource attachment,
+                           String attachmentFilename, RateLimiter rateLimiter, AtomicInteger sent, AtomicInteger failed, int total, long start) throws InterruptedException {
+        Transport transport = null;
+        try {
+            for (DonorSummary recipient: chunk) {
+                MimeMessage message;
+                try {
+                    message = buildMessage(recipient, subject, textBuilder, attachment, attachmentFilename);
+                } catch (MessagingException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.error("Could not build mail for " + recipient.getMail(), e);
+                    continue;
+                }
+                rateLimiter.acquire();
+                try {
+                    if (transport == null || !transport.isConnected()) {
+                        close(transport);
+                        transport = connectTransport();
+                    }
+                    transport.sendMessage(message, message.getAllRecipients());
+                } catch (MessagingException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.error("Could not send mail to " + recipient.getMail(), e);
+                    continue;
+                }
+                int sentSoFar = sent.incrementAndGet();
+                if (sentSoFar % bulkProgressInterval == 0) {
+                    logger.warn("Bulk mail progress: " + sentSoFar + "/" + total + " sent, " + throughput(sentSoFar, start) + " mails/s");
+                }
+            }
+        } finally {
+            close(transport);
+        }
+    }
+
+    private MimeMessage buildMessage(DonorSummary recipient, String subject, Function<DonorSummary, String> textBuilder,
+                                     ByteArrayResource attachment, String attachmentFilename) throws MessagingException {
+        MimeMessage message = emailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom(senderUsername);
+        helper.setTo(recipient.getMail());
+        helper.setSubject(subject);
+        helper.setText(textBuilder.apply(recipient));
+        helper.addAttachment(attachmentFilename, attachment);
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    // One transport per worker keeps a single SMTP session open for the whole chunk
+    private Transport connectTransport() throws MessagingException {
+        if (!(emailSender instanceof JavaMailSenderImpl)) {
+            throw new MessagingException("Bulk mail needs a JavaMailSenderImpl to open its own transport");
+        }
+        JavaMailSenderImpl mailSender = (JavaMailSenderImpl) emailSender;
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        return transport;
+    }
+
+    private void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.warn("Could not close SMTP transport: " + e.getMessage());
+        }
+    }
+
+    private static long throughput(int sent, long start) {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return sent * 1000L / elapsedMillis;
+    }
+
+    private static class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextPermit = System.nanoTime();
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        }
+
+        void acquire() throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                wait = nextPermit - now;
+                nextPermit = Math.max(nextPermit, now) + intervalNanos;
+            }
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+
     @Bean
     public JavaMailSender getJavaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
@@ -64,6 +236,9 @@ public class SendEmailService {
         props.put("mail.transport.protocol", "smtp");
         props.put("mail.smtp.auth", "true");
         props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "10000");
+        props.put("mail.smtp.writetimeout", "10000");
         props.put("mail.debug", "true");
         props.put("mail.smtp.ssl.trust", "smtp.gmail.com");
         return mailSender;
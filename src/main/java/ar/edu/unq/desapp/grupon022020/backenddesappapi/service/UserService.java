@@ -3,58 +3,92 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.LoginException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
 
     @Autowired
     private UserRepository repository;
+    @Autowired
+    private CredentialService credentialService;
     @Value("${admin.name:NONE}")
     private String adminName;
     @Value("${admin.password:NONE}")
     private String adminPassword;
+    @Value("${security.nickname-cache.maximum-size:100000}")
+    private long nicknameCacheMaximumSize;
+
+    private Cache<String, String> nicknamesByMail;
+
+    @PostConstruct
+    public void start() {
+        nicknamesByMail = Caffeine.newBuilder().maximumSize(nicknameCacheMaximumSize).build();
+    }
 
     @Transactional
     public Donor save(Donor donor) {
-        return this.repository.save(donor);
+        Donor savedDonor = this.repository.save(donor);
+        nicknamesByMail.put(savedDonor.getMail(), savedDonor.getNickname());
+        return savedDonor;
     }
 
     public List<Donor> findAll() {
         return this.repository.findAll();
     }
 
-    public Donor findById(String id) throws DataNotFoundException {
-        if(repository.existsById(id)){
-            return this.repository.findById(id).get();
-        }
-        else {
-            throw new DataNotFoundException("User " + id + " does not exists");
+    public List<DonorSummary> findAllSummaries() {
+        return this.repository.findAllSummaries();
+    }
+
+    public List<DonorSummary> findSummariesPage(String after, int limit) {
+        return this.repository.findSummariesAfter(after == null ? "" : after, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllSummaries(Consumer<DonorSummary> action) {
+        try (Stream<DonorSummary> donors = this.repository.streamAllSummaries()) {
+            donors.forEach(action);
         }
     }
 
+    public Donor findById(String id) throws DataNotFoundException {
+        return this.repository.findById(id).
+                orElseThrow(() -> new DataNotFoundException("User " + id + " does not exists"));
+    }
+
+    public DonorSummary findSummaryById(String id) throws DataNotFoundException {
+        return this.repository.findSummaryByNickname(id).
+                orElseThrow(() -> new DataNotFoundException("User " + id + " does not exists"));
+    }
+
     public void loginDonorUser(String nickname, String password) throws LoginException {
-        if(!repository.existsById(nickname)) {
-            throw new LoginException("Nickname belongs to a non existing user");
-        }
-        if(!repository.loginUser(nickname, password)) {
+        String encodedPassword = repository.findPasswordByNickname(nickname).
+                orElseThrow(() -> new LoginException("Nickname belongs to a non existing user"));
+        if(!credentialService.matches(password, encodedPassword)) {
             throw new LoginException("Password is incorrect");
         }
     }
 
     public void loginAdmin(String nickname, String password) throws LoginException {
-        //TODO: create test for this method!
         if(!nickname.equals(adminName)){
             throw new LoginException("Nickname is incorrect");
         }
-        if(!password.equals(adminPassword)){
+        if(!credentialService.matchesAdmin(password, adminPassword)){
             throw new LoginException("Password is incorrect");
         }
     }
@@ -63,16 +97,24 @@ public class UserService {
         if (repository.existsById(user.getNickname())){
             throw new DataNotFoundException("User " + user.getNickname() + " already exists");
         }
+        if (repository.existsByMail(user.getMail())){
+            throw new DataNotFoundException("User with mail " + user.getMail() + " already exists");
+        }
+        user.setPassword(credentialService.encode(user.getPassword()));
         save(user);
     }
 
     public Donor loginByMail(String mail) throws LoginException {
-        Optional<Donor> donor = this.findAll().stream().filter(user -> user.getMail().equals(mail)).findAny();
-        if (donor.isPresent()) {
-            return donor.get();
-        }
-        else {
-            throw new LoginException("Unregistered user");
+        String nickname = nicknamesByMail.getIfPresent(mail);
+        if (nickname != null) {
+            Optional<Donor> cachedDonor = repository.findById(nickname).filter(donor -> mail.equals(donor.getMail()));
+            if (cachedDonor.isPresent()) {
+                return cachedDonor.get();
+            }
+            nicknamesByMail.invalidate(mail);
         }
+        Donor donor = repository.findByMail(mail).orElseThrow(() -> new LoginException("Unregistered user"));
+        nicknamesByMail.put(mail, donor.getNickname());
+        return donor;
     }
 }
@@ -0,0 +1,34 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile Health health = Health.outOfService().withDetail("warmUp", "pending").build();
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    public void loaded(long elapsedMillis) {
+        health = Health.up().withDetail("warmUp", "loaded").withDetail("elapsedMillis", elapsedMillis).build();
+        finished.countDown();
+    }
+
+    public void failed(Throwable error) {
+        health = Health.down(error).withDetail("warmUp", "failed").build();
+        finished.countDown();
+    }
+
+    public boolean awaitFinished(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+}
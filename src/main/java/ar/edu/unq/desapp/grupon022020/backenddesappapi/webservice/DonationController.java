@@ -6,6 +6,7 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.DonationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.http.HttpStatus;
@@ -18,8 +19,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.ConstraintViolationException;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -33,6 +36,8 @@ public class DonationController {
 
     @Autowired
     private DonationService donationService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(method = RequestMethod.GET)
@@ -42,6 +47,21 @@ public class DonationController {
         return ResponseEntity.ok().body(list);
     }
 
+    @LogExecutionTime @LogExecutionArguments
+    @RequestMapping(method = RequestMethod.GET, params = "limit")
+    @ResponseBody
+    public ResponseEntity<?> donationsPage(@RequestParam(value = "after", required = false) Integer after,
+                                           @RequestParam("limit") @Positive @Max(value=1000) int limit) {
+        List<Donation> list = donationService.findPage(after, limit);
+        return NdjsonResponses.page(list, limit, Donation::getId);
+    }
+
+    @LogExecutionTime
+    @RequestMapping(value = "/stream", method = RequestMethod.GET, produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDonations() {
+        return NdjsonResponses.stream(objectMapper, donationService::streamAll);
+    }
+
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(method = RequestMethod.PUT)
     public ResponseEntity<?> donate(@RequestParam("nickname") @NotBlank String nickname,
@@ -5,6 +5,7 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log.LogExecutionT
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.LocationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.http.HttpStatus;
@@ -16,13 +17,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
 import java.util.List;
 
 @RestController
@@ -33,6 +38,8 @@ public class LocationController {
 
     @Autowired
     private LocationService locationService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(method = RequestMethod.GET)
@@ -42,6 +49,21 @@ public class LocationController {
         return ResponseEntity.ok().body(list);
     }
 
+    @LogExecutionTime @LogExecutionArguments
+    @RequestMapping(method = RequestMethod.GET, params = "limit")
+    @ResponseBody
+    public ResponseEntity<?> locationsPage(@RequestParam(value = "after", required = false) String after,
+                                           @RequestParam("limit") @Positive @Max(value=1000) int limit) {
+        List<Location> list = locationService.findPage(after, limit);
+        return NdjsonResponses.page(list, limit, Location::getName);
+    }
+
+    @LogExecutionTime
+    @RequestMapping(value = "/stream", method = RequestMethod.GET, produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLocations() {
+        return NdjsonResponses.stream(objectMapper, locationService::streamAll);
+    }
+
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(value = "/{name}", method = RequestMethod.GET)
     @ResponseBody
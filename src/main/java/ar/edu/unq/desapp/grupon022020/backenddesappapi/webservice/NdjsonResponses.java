@@ -0,0 +1,47 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.webservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class NdjsonResponses {
+
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String NEXT_AFTER_HEADER = "X-Next-After";
+    private static final int NEW_LINE = '\n';
+
+    private NdjsonResponses() {}
+
+    public static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            source.accept(element -> writeLine(objectMapper, outputStream, element));
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
+    }
+
+    public static <T> ResponseEntity<List<T>> page(List<T> items, int limit, Function<T, ?> keyExtractor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(keyExtractor.apply(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+
+    private static void writeLine(ObjectMapper objectMapper, OutputStream outputStream, Object element) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(element));
+            outputStream.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
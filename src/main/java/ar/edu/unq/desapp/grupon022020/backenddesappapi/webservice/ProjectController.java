@@ -5,7 +5,9 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log.LogExecutionT
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidProjectOperationException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ProjectService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.http.HttpStatus;
@@ -19,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.constraints.Max;
@@ -37,20 +40,37 @@ public class ProjectController {
 
     @Autowired
     private ProjectService projectService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(method = RequestMethod.GET)
     @ResponseBody
     public ResponseEntity<?> allProjects() {
-        List<Project> list = projectService.findAll();
+        List<ProjectSummary> list = projectService.findAllSummaries();
         return ResponseEntity.ok().body(list);
     }
 
+    @LogExecutionTime @LogExecutionArguments
+    @RequestMapping(method = RequestMethod.GET, params = "limit")
+    @ResponseBody
+    public ResponseEntity<?> projectsPage(@RequestParam(value = "after", required = false) String after,
+                                          @RequestParam("limit") @Positive @Max(value=1000) int limit) {
+        List<ProjectSummary> list = projectService.findSummariesPage(after, limit);
+        return NdjsonResponses.page(list, limit, ProjectSummary::getName);
+    }
+
+    @LogExecutionTime
+    @RequestMapping(value = "/stream", method = RequestMethod.GET, produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProjects() {
+        return NdjsonResponses.stream(objectMapper, projectService::streamAllSummaries);
+    }
+
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(path="/ending", method = RequestMethod.GET)
     @ResponseBody
     public ResponseEntity<?> allProjectsEndingThisMonth() {
-        List<Project> list = projectService.findAllEndingThisMonth();
+        List<ProjectSummary> list = projectService.findAllEndingThisMonth();
         return ResponseEntity.ok().body(list);
     }
 
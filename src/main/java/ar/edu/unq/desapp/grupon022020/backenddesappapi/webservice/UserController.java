@@ -5,7 +5,9 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log.LogExecutionT
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.LoginException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.http.HttpStatus;
@@ -21,10 +23,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
 import java.util.List;
 
 @RestController
@@ -35,20 +40,37 @@ public class UserController {
 
     @Autowired
     private UserService userService;
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(method = RequestMethod.GET)
     @ResponseBody
     public ResponseEntity<?> allDonorUsers() {
-        List<Donor> list = userService.findAll();
+        List<DonorSummary> list = userService.findAllSummaries();
         return ResponseEntity.ok().body(list);
     }
 
+    @LogExecutionTime @LogExecutionArguments
+    @RequestMapping(method = RequestMethod.GET, params = "limit")
+    @ResponseBody
+    public ResponseEntity<?> donorUsersPage(@RequestParam(value = "after", required = false) String after,
+                                            @RequestParam("limit") @Positive @Max(value=1000) int limit) {
+        List<DonorSummary> list = userService.findSummariesPage(after, limit);
+        return NdjsonResponses.page(list, limit, DonorSummary::getNickname);
+    }
+
+    @LogExecutionTime
+    @RequestMapping(value = "/stream", method = RequestMethod.GET, produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDonorUsers() {
+        return NdjsonResponses.stream(objectMapper, userService::streamAllSummaries);
+    }
+
     @LogExecutionTime @LogExecutionArguments
     @RequestMapping(value = "/{nickname}", method = RequestMethod.GET)
     public ResponseEntity<?> getDonorUser(@PathVariable("nickname") @NotBlank String nickname) {
         try {
-            Donor donor = userService.findById(nickname);
+            DonorSummary donor = userService.findSummaryById(nickname);
             return ResponseEntity.ok().body(donor);
         } catch (DataNotFoundException e) {
             return new ResponseEntity<>("User could not be found: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,63 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArgumentRendererTest {
+
+    private final ArgumentRenderer renderer = new ArgumentRenderer(64, new HashSet<>(Arrays.asList("password")));
+
+    public static class Endpoints {
+        public void login(String nickname, String password) {}
+        public void save(Donor donor) {}
+        public void saveAll(List<Donor> donors) {}
+    }
+
+    private Parameter[] parameters(String method, Class<?>... types) throws NoSuchMethodException {
+        return Endpoints.class.getMethod(method, types).getParameters();
+    }
+
+    @Test
+    public void testArgumentRendererRedactsSensitiveParameters() throws Exception {
+        String rendered = renderer.render(parameters("login", String.class, String.class), new Object[] {"juan123", "secreto"});
+        assertTrue(rendered.contains("juan123"));
+        assertTrue(rendered.contains(ArgumentRenderer.REDACTED));
+        assertFalse(rendered.contains("secreto"));
+    }
+
+    @Test
+    public void testArgumentRendererRedactsSensitiveFieldsAndCapsLength() throws Exception {
+        Donor donor = DonorBuilder.aDonorUser().withNickname("juan123").withPassword("secreto").
+                withMail("juan123@mail.com").withMoney(Money.of(1000)).build();
+        String rendered = new ArgumentRenderer(1024, new HashSet<>(Arrays.asList("password"))).
+                render(parameters("save", Donor.class), new Object[] {donor});
+        assertTrue(rendered.contains("juan123@mail.com"));
+        assertFalse(rendered.contains("secreto"));
+
+        String capped = renderer.render(parameters("save", Donor.class), new Object[] {donor});
+        assertTrue(capped.length() <= "donor=".length() + 64 + "...".length());
+    }
+
+    @Test
+    public void testArgumentRendererSummarizesCollections() throws Exception {
+        List<Donor> donors = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            donors.add(DonorBuilder.aDonorUser().withNickname("donor" + i).build());
+        }
+        assertEquals("donors=ArrayList[size=1000]",
+                renderer.render(parameters("saveAll", List.class), new Object[] {donors}));
+    }
+
+}
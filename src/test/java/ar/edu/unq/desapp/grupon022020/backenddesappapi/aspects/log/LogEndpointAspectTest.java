@@ -0,0 +1,73 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.aspects.log;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LogEndpointAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TimedController controller;
+
+    public static class TimedController {
+
+        @LogExecutionTime
+        public ResponseEntity<?> found() {
+            return ResponseEntity.ok().body("found");
+        }
+
+        @LogExecutionTime
+        public ResponseEntity<?> notFound() {
+            return new ResponseEntity<>("not found", HttpStatus.NOT_FOUND);
+        }
+
+        @LogExecutionTime
+        public ResponseEntity<?> failing() {
+            throw new IllegalStateException("failing");
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        LogEndpointAspect aspect = new LogEndpointAspect();
+        ReflectionTestUtils.setField(aspect, "meterRegistry", meterRegistry);
+        aspect.start();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TimedController());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        controller = factory.getProxy();
+    }
+
+    private Timer timer(String method, String outcome, String exception) {
+        return meterRegistry.get("endpoint.execution").
+                tag("class", "TimedController").
+                tag("method", method).
+                tag("outcome", outcome).
+                tag("exception", exception).
+                timer();
+    }
+
+    @Test
+    public void testLogEndpointAspectRecordsTimerPerOutcome() {
+        controller.found();
+        controller.found();
+        controller.notFound();
+        assertEquals(2, timer("found", "SUCCESS", "None").count());
+        assertEquals(1, timer("notFound", "CLIENT_ERROR", "None").count());
+    }
+
+    @Test
+    public void testLogEndpointAspectRecordsTimerForException() {
+        assertThrows(IllegalStateException.class, () -> controller.failing());
+        assertEquals(1, timer("failing", "SERVER_ERROR", "IllegalStateException").count());
+    }
+
+}
@@ -0,0 +1,77 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.benchmark;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ARSATStubServer;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ARSATWebService;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.LocationService;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ProjectService;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.WarmUpHealthIndicator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Tag("benchmark")
+class ARSATIngestionBenchmark {
+
+    private static final int ROWS_PER_FEED = 50_000;
+
+    private static ARSATStubServer server;
+
+    @Autowired
+    private ARSATWebService webService;
+    @Autowired
+    private LocationService locationService;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private WarmUpHealthIndicator warmUpHealthIndicator;
+
+    @DynamicPropertySource
+    static void arsatProperties(DynamicPropertyRegistry registry) throws IOException {
+        server = new ARSATStubServer(ROWS_PER_FEED);
+        registry.add("arsat.url", server::url);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @BeforeEach
+    void awaitWarmUp() throws InterruptedException, DataNotFoundException {
+        assertTrue(warmUpHealthIndicator.awaitFinished(5, TimeUnit.MINUTES));
+        assertEquals(Status.UP, warmUpHealthIndicator.health().getStatus());
+        assertEquals("Conectando Santa Rita", projectService.findById("Conectando Santa Rita").getName());
+        assertTrue(locationService.findAll().size() >= 2 * ROWS_PER_FEED);
+    }
+
+    @Test
+    void loadLocationsFromARSAT() throws IOException {
+        long start = System.nanoTime();
+        int fetched = webService.fetchLocations().size();
+        long fetchElapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("ARSATWebService.fetchLocations: %d rows in %d ms (%.0f rows/s)%n",
+                fetched, fetchElapsed, fetched * 1000.0 / Math.max(fetchElapsed, 1));
+
+        start = System.nanoTime();
+        webService.loadLocationsFromARSAT();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("ARSATWebService.loadLocationsFromARSAT: %d rows in %d ms (%.0f rows/s)%n",
+                fetched, elapsed, fetched * 1000.0 / Math.max(elapsed, 1));
+
+        assertTrue(locationService.findAll().size() >= 2 * ROWS_PER_FEED);
+    }
+}
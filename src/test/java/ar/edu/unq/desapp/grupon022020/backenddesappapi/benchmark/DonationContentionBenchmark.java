@@ -0,0 +1,99 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.benchmark;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.DonationService;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ProjectService;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Tag("benchmark")
+class DonationContentionBenchmark {
+
+    private static final int DONORS = 64;
+    private static final int DONATIONS_PER_DONOR = 50;
+    private static final int AMOUNT = 1;
+    private static final int INITIAL_MONEY = 1_000_000;
+    private static final String PROJECT_NAME = "contention_project";
+
+    @Autowired
+    private DonationService donationService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ProjectService projectService;
+
+    @Test
+    void concurrentDonorsOnOneProject() throws Exception {
+        projectService.save(ProjectBuilder.aProject().
+                withName(PROJECT_NAME).
+                withFactor(1_000_000).
+                withStartDate(LocalDate.now()).
+                withDurationInDays(10).
+                withLocation(LocationBuilder.aLocation().withName(PROJECT_NAME).withPopulation(1_000).build()).
+                build());
+        for (int i = 0; i < DONORS; i++) {
+            userService.save(DonorBuilder.aDonorUser().
+                    withNickname(nickname(i)).
+                    withMail(nickname(i) + "@mail.com").
+                    withMoney(Money.of(INITIAL_MONEY)).
+                    build());
+        }
+
+        ExecutorService donors = Executors.newFixedThreadPool(DONORS);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < DONORS; i++) {
+            String nickname = nickname(i);
+            results.add(donors.submit(() -> {
+                startSignal.await();
+                for (int j = 0; j < DONATIONS_PER_DONOR; j++) {
+                    donationService.donate(nickname, PROJECT_NAME, "contention", AMOUNT);
+                }
+                return null;
+            }));
+        }
+        long start = System.nanoTime();
+        startSignal.countDown();
+        for (Future<?> result: results) {
+            result.get();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        donors.shutdown();
+
+        int donations = DONORS * DONATIONS_PER_DONOR;
+        System.out.printf("DonationService.donate: %d donations from %d donors in %d ms (%.0f donations/s)%n",
+                donations, DONORS, elapsed, donations * 1000.0 / Math.max(elapsed, 1));
+
+        Project project = projectService.findById(PROJECT_NAME);
+        assertEquals(Money.of(donations * AMOUNT), project.totalAmountDonations());
+        assertEquals(DONORS, project.numberOfDonors());
+        for (int i = 0; i < DONORS; i++) {
+            Donor donor = userService.findById(nickname(i));
+            assertEquals(Money.of(INITIAL_MONEY - DONATIONS_PER_DONOR * AMOUNT), donor.getMoney());
+        }
+    }
+
+    private String nickname(int i) {
+        return "contention_donor_" + i;
+    }
+}
@@ -0,0 +1,69 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.benchmark;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.DonationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+@Tag("benchmark")
+class DonationInsertBenchmark {
+
+    private static final int DONATIONS = 100_000;
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Test
+    void insertDonationsOneByOne() {
+        long start = System.nanoTime();
+        for (int i = 0; i < DONATIONS; i++) {
+            donationService.save(aDonation(i));
+        }
+        report("save", start);
+    }
+
+    @Test
+    void insertDonationsInChunks() {
+        long start = System.nanoTime();
+        List<Donation> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < DONATIONS; i++) {
+            chunk.add(aDonation(i));
+            if (chunk.size() == CHUNK_SIZE) {
+                donationService.saveAll(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            donationService.saveAll(chunk);
+        }
+        report("saveAll", start);
+    }
+
+    private Donation aDonation(int i) {
+        return DonationBuilder.aDonation().
+                withDonorNickname("benchmark_donor_" + (i % 100)).
+                withProjectName("benchmark_project_" + (i % 10)).
+                withAmount(Money.of(100 + i % 900)).
+                build();
+    }
+
+    protected String idAllocation() {
+        return "pooled-lo sequence, batched";
+    }
+
+    private void report(String operation, long start) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("DonationService.%s [%s]: %d donations in %d ms (%.0f inserts/s)%n",
+                operation, idAllocation(), DONATIONS, elapsed, DONATIONS * 1000.0 / Math.max(elapsed, 1));
+    }
+}
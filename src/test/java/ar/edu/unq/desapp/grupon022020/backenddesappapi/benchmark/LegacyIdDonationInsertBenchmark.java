@@ -0,0 +1,19 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.benchmark;
+
+import org.springframework.test.context.TestPropertySource;
+
+// Same inserts with the mapping this project had before pooled ids: one sequence call per row, no JDBC batching.
+// Its own database keeps the increment-1 sequence away from the pooled contexts cached in the same JVM.
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacyids",
+        "spring.jpa.mapping-resources=benchmark/legacy-donation-ids.xml",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+        "spring.jpa.properties.hibernate.order_inserts=false",
+        "spring.jpa.properties.hibernate.order_updates=false"})
+class LegacyIdDonationInsertBenchmark extends DonationInsertBenchmark {
+
+    @Override
+    protected String idAllocation() {
+        return "sequence allocationSize=1, unbatched";
+    }
+}
@@ -3,9 +3,7 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -45,14 +43,14 @@ class DonationTest {
 
     @Test
     public void testDonationAmount() {
-        BigDecimal amount = new BigDecimal(2530);
+        Money amount = Money.of(2530);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
         assertEquals(amount, donation.getAmount());
     }
 
     @Test
     public void testDonationAmountSetter() {
-        BigDecimal amount = new BigDecimal(2530);
+        Money amount = Money.of(2530);
         Donation donation = DonationBuilder.aDonation().build();
         donation.setAmount(amount);
         assertEquals(amount, donation.getAmount());
@@ -91,10 +89,9 @@ class DonationTest {
     @Test
     public void testDonationWithNoPoints() {
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.empty());
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
-        BigDecimal amount = new BigDecimal(500);
+        Money amount = Money.of(500);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
@@ -104,38 +101,34 @@ class DonationTest {
     @Test
     public void testDonationWithAmountPoints() {
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.empty());
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
-        BigDecimal amount = new BigDecimal(1500);
+        Money amount = Money.of(1500);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
-        assertEquals(amount.intValue(), points);
+        assertEquals((int) amount.getUnits(), points);
     }
 
     @Test
     public void testDonationWithPopulationPoints() {
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.empty());
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(1200);
-        BigDecimal amount = new BigDecimal(500);
+        Money amount = Money.of(500);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
-        assertEquals(amount.multiply(new BigDecimal(2)).intValue(), points);
+        assertEquals((int) amount.times(2).getUnits(), points);
     }
 
     @Test
     public void testDonationWithLastDonationPoints() {
-        Donation lastDonation = mock(Donation.class);
-        when(lastDonation.getDate()).thenReturn(LocalDate.now());
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.of(lastDonation));
+        when(donor.hasDonatedInMonthOf(LocalDate.now())).thenReturn(true);
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
-        BigDecimal amount = new BigDecimal(500);
+        Money amount = Money.of(500);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
@@ -144,47 +137,41 @@ class DonationTest {
 
     @Test
     public void testDonationWithAmountAndLastDonationPoints() {
-        Donation lastDonation = mock(Donation.class);
-        when(lastDonation.getDate()).thenReturn(LocalDate.now());
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.of(lastDonation));
+        when(donor.hasDonatedInMonthOf(LocalDate.now())).thenReturn(true);
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
-        BigDecimal amount = new BigDecimal(4000);
+        Money amount = Money.of(4000);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
-        assertEquals(amount.add(new BigDecimal(donation.pointsFromLastDonationOnSameMonth())).intValue(), points);
+        assertEquals((int) amount.getUnits() + donation.pointsFromLastDonationOnSameMonth(), points);
     }
 
     @Test
     public void testDonationWithPopulationAndLastDonationPoints() {
-        Donation lastDonation = mock(Donation.class);
-        when(lastDonation.getDate()).thenReturn(LocalDate.now());
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.of(lastDonation));
+        when(donor.hasDonatedInMonthOf(LocalDate.now())).thenReturn(true);
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(900);
-        BigDecimal amount = new BigDecimal(700);
+        Money amount = Money.of(700);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
-        assertEquals((amount.multiply(new BigDecimal(2))).add(new BigDecimal(donation.pointsFromLastDonationOnSameMonth())).intValue(), points);
+        assertEquals((int) amount.times(2).getUnits() + donation.pointsFromLastDonationOnSameMonth(), points);
     }
 
     @Test
     public void testDonationWithAmountAndPopulationAndLastDonationPoints() {
-        Donation lastDonation = mock(Donation.class);
-        when(lastDonation.getDate()).thenReturn(LocalDate.now());
         Donor donor = mock(Donor.class);
-        when(donor.lastDonation()).thenReturn(Optional.of(lastDonation));
+        when(donor.hasDonatedInMonthOf(LocalDate.now())).thenReturn(true);
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(900);
-        BigDecimal amount = new BigDecimal(5000);
+        Money amount = Money.of(5000);
         Donation donation = DonationBuilder.aDonation().withAmount(amount).build();
 
         int points = donation.calculatePoints(donor, project);
-        assertEquals((amount.multiply(new BigDecimal(2))).add(new BigDecimal(donation.pointsFromLastDonationOnSameMonth())).intValue(), points);
+        assertEquals((int) amount.times(2).getUnits() + donation.pointsFromLastDonationOnSameMonth(), points);
     }
 
 }
\ No newline at end of file
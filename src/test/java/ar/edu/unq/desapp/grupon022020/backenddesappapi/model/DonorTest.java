@@ -6,7 +6,6 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuil
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -119,14 +118,14 @@ class DonorTest {
 
     @Test
     public void testDonorUserMoney() {
-        BigDecimal money = new BigDecimal(2300);
+        Money money = Money.of(2300);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertEquals(money, donor.getMoney());
     }
 
     @Test
     public void testDonorUserMoneySetter() {
-        BigDecimal money = new BigDecimal(2300);
+        Money money = Money.of(2300);
         Donor donor = DonorBuilder.aDonorUser().build();
         donor.setMoney(money);
         assertEquals(money, donor.getMoney());
@@ -134,74 +133,74 @@ class DonorTest {
 
     @Test
     public void testDonorUserDonation() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertTrue(donor.getDonations().isEmpty());
 
-        BigDecimal amount = new BigDecimal(3570);
+        Money amount = Money.of(3570);
         String comment = "This is my donation";
         Project project = mock(Project.class);
         when(project.getFinishDate()).thenReturn(LocalDate.now());
-        donor.donate(amount, comment, project);
+        donor.donate(amount, comment, project, true);
         assertFalse(donor.getDonations().isEmpty());
 
         Donation donation = donor.getDonations().get(0);
         assertEquals(amount, donation.getAmount());
         assertEquals(comment, donation.getComment());
-        assertEquals(money.subtract(amount), donor.getMoney());
+        assertEquals(money.minus(amount), donor.getMoney());
     }
 
     @Test
     public void testDonorUserPointsWithLess1000AmountAndPlus2000Population() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertEquals(0, donor.getPoints());
 
-        BigDecimal donationAmount = new BigDecimal(500);
+        Money donationAmount = Money.of(500);
         String comment = "This is my donation";
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
         when(project.getFinishDate()).thenReturn(LocalDate.now());
-        donor.donate(donationAmount, comment, project);
+        donor.donate(donationAmount, comment, project, true);
 
         assertEquals(0, donor.getPoints());
     }
 
     @Test
     public void testDonorUserPointsWithPlus1000AmountAndPlus2000Population() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertEquals(0, donor.getPoints());
 
-        BigDecimal donationAmount = new BigDecimal(2000);
+        Money donationAmount = Money.of(2000);
         String comment = "This is my donation";
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3000);
         when(project.getFinishDate()).thenReturn(LocalDate.now());
-        donor.donate(donationAmount, comment, project);
+        donor.donate(donationAmount, comment, project, true);
 
-        assertEquals(donationAmount.intValue(), donor.getPoints());
+        assertEquals((int) donationAmount.getUnits(), donor.getPoints());
     }
 
     @Test
     public void testDonorUserPointsWithPlus1000AmountAndLess2000Population() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertEquals(0, donor.getPoints());
 
-        BigDecimal donationAmount = new BigDecimal(2000);
+        Money donationAmount = Money.of(2000);
         String comment = "This is my donation";
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(1700);
         when(project.getFinishDate()).thenReturn(LocalDate.now());
-        donor.donate(donationAmount, comment, project);
+        donor.donate(donationAmount, comment, project, true);
 
-        assertEquals(donationAmount.multiply(new BigDecimal(2)).intValue(), donor.getPoints());
+        assertEquals((int) donationAmount.times(2).getUnits(), donor.getPoints());
     }
 
     @Test
     public void testDonorUserPointsWithLastDonationNotOnSameMonth() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         Donation lastDonation = DonationBuilder.aDonation().withDate(LocalDate.now().minusMonths(7)).build();
         List<Donation> donations = new ArrayList<>();
@@ -211,34 +210,34 @@ class DonorTest {
         Project project = ProjectBuilder.aProject().withLocation(location).withDonations(donations).build();
         assertEquals(0, donor.getPoints());
 
-        BigDecimal donationAmount = new BigDecimal(2500);
+        Money donationAmount = Money.of(2500);
         String comment = "This is my donation";
-        donor.donate(donationAmount, comment, project);
-        assertEquals(donationAmount.intValue(), donor.getPoints());
+        donor.donate(donationAmount, comment, project, true);
+        assertEquals((int) donationAmount.getUnits(), donor.getPoints());
     }
 
     @Test
     public void testDonorUserPointsWithLastDonationOnSameMonth() throws InvalidDonationException {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         assertEquals(0, donor.getPoints());
 
         Project project = mock(Project.class);
         when(project.locationPopulation()).thenReturn(3300);
         when(project.getFinishDate()).thenReturn(LocalDate.now());
-        donor.donate(new BigDecimal(500), "Second donation", project);
+        donor.donate(Money.of(500), "Second donation", project, true);
         assertEquals(0, donor.getPoints());
         assertEquals(1, donor.getDonations().size());
 
-        BigDecimal donationAmount = new BigDecimal(2500);
+        Money donationAmount = Money.of(2500);
         String comment = "This is my donation";
-        donor.donate(donationAmount, comment, project);
-        assertEquals(donationAmount.add(new BigDecimal(500)).intValue(), donor.getPoints());
+        donor.donate(donationAmount, comment, project, false);
+        assertEquals((int) donationAmount.plus(Money.of(500)).getUnits(), donor.getPoints());
     }
 
     @Test
     public void testUserDonatesOnProjectNotStarted() {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         Location location = mock(Location.class);
         when(location.getPopulation()).thenReturn(2000);
@@ -247,7 +246,7 @@ class DonorTest {
 
         try
         {
-            donor.donate(new BigDecimal(900), "Third donation", project);
+            donor.donate(Money.of(900), "Third donation", project, true);
         }
         catch(InvalidDonationException e)
         {
@@ -258,7 +257,7 @@ class DonorTest {
 
     @Test
     public void testUserDonatesOnClosedProject() {
-        BigDecimal money = new BigDecimal(9999);
+        Money money = Money.of(9999);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         Location location = mock(Location.class);
         when(location.getPopulation()).thenReturn(3300);
@@ -266,7 +265,7 @@ class DonorTest {
 
         try
         {
-            donor.donate(new BigDecimal(500), "Fourth donation", project);
+            donor.donate(Money.of(500), "Fourth donation", project, true);
         }
         catch(InvalidDonationException e)
         {
@@ -277,7 +276,7 @@ class DonorTest {
 
     @Test
     public void testUserDonatesWithoutMoney() {
-        BigDecimal money = new BigDecimal(1000);
+        Money money = Money.of(1000);
         Donor donor = DonorBuilder.aDonorUser().withMoney(money).build();
         Location location = mock(Location.class);
         when(location.getPopulation()).thenReturn(1000);
@@ -285,7 +284,7 @@ class DonorTest {
 
         try
         {
-            donor.donate(new BigDecimal(2000), "Fifth donation", project);
+            donor.donate(Money.of(2000), "Fifth donation", project, true);
         }
         catch(InvalidDonationException e)
         {
@@ -294,4 +293,39 @@ class DonorTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testDonorLastDonationDateIsTrackedOnDonateAndUndo() throws InvalidDonationException {
+        Donation oldDonation = DonationBuilder.aDonation().withDate(LocalDate.now().minusMonths(2)).build();
+        List<Donation> donations = new ArrayList<>();
+        donations.add(oldDonation);
+        Donor donor = DonorBuilder.aDonorUser().withMoney(Money.of(1000)).withDonations(donations).build();
+        Project project = ProjectBuilder.aProject().withDurationInDays(7).build();
+
+        assertEquals(oldDonation.getDate(), donor.getLastDonationDate());
+        assertFalse(donor.hasDonatedInMonthOf(LocalDate.now()));
+
+        Donation donation = donor.donate(Money.of(100), "First donation", project, true);
+
+        assertEquals(LocalDate.now(), donor.getLastDonationDate());
+        assertTrue(donor.hasDonatedInMonthOf(LocalDate.now()));
+
+        donor.undoDonation(donation);
+
+        assertEquals(oldDonation.getDate(), donor.getLastDonationDate());
+        assertFalse(donor.hasDonatedInMonthOf(LocalDate.now()));
+    }
+
+    @Test
+    public void testDonorSecondDonationOnSameMonthGetsExtraPoints() throws InvalidDonationException {
+        Donor donor = DonorBuilder.aDonorUser().withMoney(Money.of(1000)).build();
+        Location location = mock(Location.class);
+        when(location.getPopulation()).thenReturn(5000);
+        Project project = ProjectBuilder.aProject().withDurationInDays(7).withLocation(location).build();
+
+        Donation donation = donor.donate(Money.of(100), "First donation", project, true);
+        assertEquals(0, donor.getPoints());
+        donor.donate(Money.of(100), "Second donation", project, false);
+        assertEquals(donation.pointsFromLastDonationOnSameMonth(), donor.getPoints());
+    }
+
+}
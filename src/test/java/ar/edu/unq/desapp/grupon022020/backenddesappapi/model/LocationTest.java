@@ -4,6 +4,7 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBui
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 class LocationTest {
 
@@ -66,4 +67,16 @@ class LocationTest {
         location.setState(state);
         assertEquals(state, location.getState());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLocationContentHash() {
+        Location location = LocationBuilder.aLocation().withName("Santa Rita").withPopulation(1200).withState("Conectado").build();
+        Location renamed = LocationBuilder.aLocation().withName("Colon").withPopulation(1200).withState("Conectado").build();
+        long hash = location.contentHash();
+        assertEquals(hash, renamed.contentHash());
+        location.setState("En Planificación");
+        assertNotEquals(hash, location.contentHash());
+        location.updateSyncHash();
+        assertEquals(location.contentHash(), location.getSyncHash());
+    }
+}
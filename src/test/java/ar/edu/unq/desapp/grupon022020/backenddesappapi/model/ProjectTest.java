@@ -1,18 +1,21 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.model;
 
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -97,16 +100,16 @@ public class ProjectTest {
 
     @Test
     public void testProjectStatus() {
-        String status = ProjectStatus.ACTIVE.name();
+        ProjectStatus status = ProjectStatus.ACTIVE;
         Project project = ProjectBuilder.aProject().withStatus(status).build();
         assertEquals(status, project.getStatus());
     }
 
     @Test
     public void testProjectStatusSetter() {
-        String status = ProjectStatus.ACTIVE.name();
+        ProjectStatus status = ProjectStatus.ACTIVE;
         Project project = ProjectBuilder.aProject().withStatus(status).build();
-        String newStatus = ProjectStatus.COMPLETE.name();
+        ProjectStatus newStatus = ProjectStatus.COMPLETE;
         project.setStatus(newStatus);
         assertEquals(newStatus, project.getStatus());
     }
@@ -151,9 +154,9 @@ public class ProjectTest {
 
     @Test
     public void testProjectTotalDonations() {
-        BigDecimal amount_1 = new BigDecimal(1200);
-        BigDecimal amount_2 = new BigDecimal(1750);
-        BigDecimal amount_3 = new BigDecimal(700);
+        Money amount_1 = Money.of(1200);
+        Money amount_2 = Money.of(1750);
+        Money amount_3 = Money.of(700);
         Donation donation_1 = mock(Donation.class);
         when(donation_1.getAmount()).thenReturn(amount_1);
         Donation donation_2 = mock(Donation.class);
@@ -166,14 +169,14 @@ public class ProjectTest {
         donations.add(donation_3);
         Project project = ProjectBuilder.aProject().withDonations(donations).build();
 
-        assertEquals(amount_1.add(amount_2).add(amount_3) , project.totalAmountDonations());
+        assertEquals(amount_1.plus(amount_2).plus(amount_3), project.totalAmountDonations());
     }
 
     @Test
     public void testProjectPercentageAchieved() {
-        BigDecimal amount_1 = new BigDecimal(200);
-        BigDecimal amount_2 = new BigDecimal(170);
-        BigDecimal amount_3 = new BigDecimal(300);
+        Money amount_1 = Money.of(200);
+        Money amount_2 = Money.of(170);
+        Money amount_3 = Money.of(300);
         Donation donation_1 = mock(Donation.class);
         when(donation_1.getAmount()).thenReturn(amount_1);
         Donation donation_2 = mock(Donation.class);
@@ -187,7 +190,7 @@ public class ProjectTest {
         int factor = 3400;
         Project project = ProjectBuilder.aProject().withFactor(factor).withDonations(donations).build();
 
-        float expectedPercentageAchieved = ((float) (amount_1.intValue() + amount_2.intValue() + amount_3.intValue()) / project.moneyRequired()) * 100;
+        float expectedPercentageAchieved = ((float) amount_1.plus(amount_2).plus(amount_3).getCents() / project.moneyRequired().getCents()) * 100;
         assertEquals(expectedPercentageAchieved, project.percentageAchieved());
     }
 
@@ -205,10 +208,10 @@ public class ProjectTest {
                 withFactor(factor).
                 withClosurePercentage(closurePercentage).
                 build();
-        Donor donor = DonorBuilder.aDonorUser().withMoney(new BigDecimal(9999999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withMoney(Money.of(9999999)).build();
 
-        donor.donate(new BigDecimal(2000000), "First donation", project);
-        donor.donate(new BigDecimal(2000000), "Second donation", project);
+        donor.donate(Money.of(2000000), "First donation", project, true);
+        donor.donate(Money.of(2000000), "Second donation", project, false);
 
         assertTrue(project.hasReachedGoal());
     }
@@ -227,10 +230,10 @@ public class ProjectTest {
                 withFactor(factor).
                 withClosurePercentage(closurePercentage).
                 build();
-        Donor donor = DonorBuilder.aDonorUser().withMoney(new BigDecimal(9999999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withMoney(Money.of(9999999)).build();
 
-        donor.donate(new BigDecimal(1000000), "First donation", project);
-        donor.donate(new BigDecimal(3000000), "Second donation", project);
+        donor.donate(Money.of(1000000), "First donation", project, true);
+        donor.donate(Money.of(3000000), "Second donation", project, false);
 
         assertFalse(project.hasReachedGoal());
     }
@@ -257,4 +260,95 @@ public class ProjectTest {
 
         assertEquals(3, project.numberOfDonors());
     }
+
+    @Test
+    public void testProjectLastDonationDate() {
+        LocalDate lastDate = LocalDate.now().minusDays(2);
+        List<Donation> donations = new ArrayList<>();
+        donations.add(DonationBuilder.aDonation().withDate(LocalDate.now().minusDays(10)).build());
+        donations.add(DonationBuilder.aDonation().withDate(lastDate).build());
+        donations.add(DonationBuilder.aDonation().withDate(LocalDate.now().minusDays(5)).build());
+        Project project = ProjectBuilder.aProject().withDonations(donations).build();
+
+        assertEquals(lastDate, project.getLastDonationDate());
+    }
+
+    @Test
+    public void testProjectAggregatesAfterDonationsAreUndone() throws InvalidDonationException {
+        Project project = ProjectBuilder.aProject().withStartDate(LocalDate.now().minusDays(1)).withDurationInDays(10).build();
+        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(Money.of(1000)).build();
+        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria321").withMoney(Money.of(1000)).build();
+        donor_1.donate(Money.of(100), "First donation", project, true);
+        donor_1.donate(Money.of(150), "Second donation", project, false);
+        donor_2.donate(Money.of(200), "Third donation", project, true);
+
+        assertEquals(Money.of(450), project.totalAmountDonations());
+        assertEquals(2, project.numberOfDonors());
+        assertEquals(LocalDate.now(), project.getLastDonationDate());
+
+        project.undoDonations();
+
+        assertEquals(Money.ZERO, project.totalAmountDonations());
+        assertEquals(0, project.numberOfDonors());
+        assertNull(project.getLastDonationDate());
+    }
+
+    @Test
+    public void testProjectMoneyRequiredIsUpdatedWithFactor() {
+        Location location = LocationBuilder.aLocation().withPopulation(300).build();
+        Project project = ProjectBuilder.aProject().withLocation(location).withFactor(10).build();
+        assertEquals(Money.of(3000), project.moneyRequired());
+        project.setFactor(20);
+        assertEquals(Money.of(6000), project.moneyRequired());
+    }
+
+    @Test
+    public void testProjectMoneyRequiredFollowsLocationPopulation() {
+        Location location = LocationBuilder.aLocation().withPopulation(300).build();
+        Project project = ProjectBuilder.aProject().withLocation(location).withFactor(10).build();
+        location.setPopulation(500);
+        assertEquals(Money.of(5000), project.moneyRequired());
+    }
+
+    @Test
+    public void testProjectWithoutLocationHasNoPercentageAchieved() {
+        Project project = ProjectBuilder.aProject().withLocation(null).build();
+        project.receiveDonation(DonationBuilder.aDonation().withDonorNickname("juan123").withAmount(Money.of(100)).build(), true);
+        assertEquals(0, project.percentageAchieved());
+        assertFalse(project.hasReachedGoal());
+    }
+
+    @Test
+    public void testProjectReceiveDonationCountsOnlyFirstDonationFromDonor() {
+        Project project = ProjectBuilder.aProject().build();
+        project.receiveDonation(DonationBuilder.aDonation().withDonorNickname("juan123").withAmount(Money.of(100)).build(), true);
+        project.receiveDonation(DonationBuilder.aDonation().withDonorNickname("juan123").withAmount(Money.of(100)).build(), false);
+        assertEquals(1, project.numberOfDonors());
+        assertEquals(Money.of(200), project.totalAmountDonations());
+    }
+
+    @Test
+    public void testProjectCancelResetsAggregates() throws InvalidDonationException {
+        Project project = ProjectBuilder.aProject().withStartDate(LocalDate.now().minusDays(1)).withDurationInDays(10).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(Money.of(1000)).build();
+        donor.donate(Money.of(100), "First donation", project, true);
+
+        project.cancel();
+
+        assertEquals(ProjectStatus.CANCELLED, project.getStatus());
+        assertEquals(Money.ZERO, project.totalAmountDonations());
+        assertEquals(0, project.numberOfDonors());
+        assertNull(project.getLastDonationDate());
+    }
+
+    @Test
+    public void testProjectLastActivityDateFallsBackToStartDate() {
+        LocalDate startDate = LocalDate.now().minusDays(10);
+        Project project = ProjectBuilder.aProject().withStartDate(startDate).build();
+        assertEquals(startDate, project.getLastActivityDate());
+        project.setDonations(new ArrayList<>(Arrays.asList(DonationBuilder.aDonation().withDate(LocalDate.now()).build())));
+        assertEquals(LocalDate.now(), project.getLastActivityDate());
+        project.undoDonations();
+        assertEquals(startDate, project.getLastActivityDate());
+    }
 }
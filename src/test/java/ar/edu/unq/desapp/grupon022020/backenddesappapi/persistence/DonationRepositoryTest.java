@@ -0,0 +1,73 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ReturnedDonation;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class DonationRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    private void persistDonation(String nickname, String projectName, int amount) {
+        Donation donation = DonationBuilder.aDonation().withDonorNickname(nickname).withProjectName(projectName).
+                withAmount(Money.of(amount)).build();
+        entityManager.persist(donation);
+    }
+
+    @Test
+    public void testDonationRepositoryGetReturnedDonationsAndDelete() {
+        entityManager.persist(DonorBuilder.aDonorUser().withNickname("juan123").withName("Juan").withMail("juan@mail.com").build());
+        persistDonation("juan123", "Conectando Rio Turbio", 100);
+        persistDonation("juan123", "Conectando Santa Rita", 200);
+        entityManager.flush();
+        List<ReturnedDonation> returned = donationRepository.getReturnedDonations("Conectando Rio Turbio");
+        assertEquals(1, returned.size());
+        assertEquals("juan@mail.com", returned.get(0).getDonorMail());
+        assertEquals(1, donationRepository.deleteDonationsOfProject("Conectando Rio Turbio"));
+        assertEquals(1, donationRepository.findAll().size());
+    }
+
+    @Test
+    public void testDonationRepositoryExistsByProjectNameAndDonorNickname() {
+        persistDonation("juan123", "Conectando Rio Turbio", 100);
+        entityManager.flush();
+        assertTrue(donationRepository.existsByProjectNameAndDonorNickname("Conectando Rio Turbio", "juan123"));
+        assertFalse(donationRepository.existsByProjectNameAndDonorNickname("Conectando Rio Turbio", "maria456"));
+        assertFalse(donationRepository.existsByProjectNameAndDonorNickname("Conectando Santa Rita", "juan123"));
+    }
+
+    @Test
+    public void testDonationRepositoryFindTop10ByOrderByAmountDesc() {
+        int[] amounts = {9000, 1230, 7650, 400, 2380, 1100, 200, 115, 8760, 50, 5700, 65};
+        for (int amount: amounts) {
+            persistDonation("juan123", "Conectando Rio Turbio", amount);
+        }
+        entityManager.flush();
+        List<Donation> topTenDonations = donationRepository.findTop10ByOrderByAmountDesc();
+        assertEquals(10, topTenDonations.size());
+        assertEquals(Money.of(9000), topTenDonations.get(0).getAmount());
+        assertEquals(Money.of(8760), topTenDonations.get(1).getAmount());
+        assertEquals(Money.of(115), topTenDonations.get(9).getAmount());
+    }
+
+}
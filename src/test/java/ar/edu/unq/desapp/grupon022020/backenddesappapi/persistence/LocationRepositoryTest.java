@@ -2,11 +2,14 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.List;
@@ -58,4 +61,33 @@ public class LocationRepositoryTest {
         assertTrue(locationsFound.contains(location_1));
         assertTrue(locationsFound.contains(location_2));
     }
+
+    @Test
+    public void testLocationRepositoryFindByNameGreaterThan() {
+        entityManager.persist(LocationBuilder.aLocation().withName("Bernal").build());
+        entityManager.persist(LocationBuilder.aLocation().withName("Catalinas").build());
+        entityManager.persist(LocationBuilder.aLocation().withName("Quilmes").build());
+        entityManager.persist(LocationBuilder.aLocation().withName("Santa Clara").build());
+        entityManager.flush();
+        List<Location> page = locationRepository.findByNameGreaterThanOrderByNameAsc("Bernal", PageRequest.of(0, 2));
+        assertEquals(2, page.size());
+        assertEquals("Catalinas", page.get(0).getName());
+        assertEquals("Quilmes", page.get(1).getName());
+    }
+
+    @Test
+    public void testLocationRepositoryFindByIdHitsSecondLevelCache() {
+        String name = "Puerto Santa Cruz";
+        entityManager.persist(LocationBuilder.aLocation().withName(name).build());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory().
+                unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        locationRepository.findById(name);
+        entityManager.clear();
+        locationRepository.findById(name);
+        assertEquals(1, statistics.getDomainDataRegionStatistics("location").getMissCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("location").getHitCount());
+    }
 }
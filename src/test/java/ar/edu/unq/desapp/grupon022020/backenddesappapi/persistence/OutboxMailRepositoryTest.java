@@ -0,0 +1,52 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMail;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMailStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class OutboxMailRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+
+    @Test
+    public void testOutboxMailRepositoryClaimsDueMailsOnlyOnce() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        entityManager.persist(new OutboxMail("juan@mail.com", "Se te ha devuelto una donacion!", "Hola Juan", now.minusMinutes(1)));
+        entityManager.persist(new OutboxMail("maria@mail.com", "Se te ha devuelto una donacion!", "Hola Maria", now.minusMinutes(1)));
+        entityManager.persist(new OutboxMail("pedro@mail.com", "Se te ha devuelto una donacion!", "Hola Pedro", now.plusMinutes(1)));
+        entityManager.flush();
+
+        List<Long> dueIds = outboxMailRepository.findDueIds(OutboxMailStatus.PENDING, now, PageRequest.of(0, 10));
+        assertEquals(2, dueIds.size());
+        LocalDateTime leaseUntil = now.plusMinutes(5);
+        assertEquals(2, outboxMailRepository.claim("first", leaseUntil, dueIds, OutboxMailStatus.PENDING, now));
+        assertEquals(0, outboxMailRepository.claim("second", leaseUntil, dueIds, OutboxMailStatus.PENDING, now));
+        entityManager.clear();
+
+        List<OutboxMail> claimed = outboxMailRepository.findByClaimToken("first");
+        assertEquals(2, claimed.size());
+        assertTrue(claimed.stream().allMatch(mail -> leaseUntil.equals(mail.getNextAttemptAt())));
+        assertTrue(outboxMailRepository.findByClaimToken("second").isEmpty());
+        assertTrue(outboxMailRepository.findDueIds(OutboxMailStatus.PENDING, now, PageRequest.of(0, 10)).isEmpty());
+    }
+
+}
@@ -0,0 +1,124 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectCreationCheck;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class ProjectRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private void persistProject(String name, ProjectStatus status, LocalDate startDate, LocalDate lastDonationDate) {
+        List<Donation> donations = new ArrayList<>();
+        if (lastDonationDate != null) {
+            donations.add(DonationBuilder.aDonation().withDonorNickname("juan123").withProjectName(name).
+                    withDate(lastDonationDate).build());
+        }
+        Location location = LocationBuilder.aLocation().withName(name).build();
+        entityManager.persist(ProjectBuilder.aProject().withName(name).withStatus(status).withStartDate(startDate).
+                withLocation(location).withDonations(donations).build());
+    }
+
+    @Test
+    public void testProjectRepositoryGetLocationsByLastActivity() {
+        LocalDate today = LocalDate.now();
+        persistProject("Rio Turbio", ProjectStatus.ACTIVE, today.minusDays(50), today.minusDays(1));
+        persistProject("Santa Rita", ProjectStatus.ACTIVE, today.minusDays(30), null);
+        persistProject("Catalinas", ProjectStatus.ACTIVE, today.minusDays(90), today.minusDays(60));
+        persistProject("Santa Clara", ProjectStatus.CANCELLED, today.minusDays(200), null);
+        entityManager.flush();
+        List<Location> locations = projectRepository.getLocationsByLastActivity(ProjectStatus.ACTIVE, PageRequest.of(0, 2));
+        assertEquals(2, locations.size());
+        assertEquals("Catalinas", locations.get(0).getName());
+        assertEquals("Santa Rita", locations.get(1).getName());
+    }
+
+    @Test
+    public void testProjectRepositoryFindNamesWithStatusAndFinishDate() {
+        LocalDate today = LocalDate.now();
+        persistProject("Rio Turbio", ProjectStatus.ACTIVE, today.minusDays(30), null);
+        persistProject("Santa Rita", ProjectStatus.ACTIVE, today.minusDays(30), null);
+        persistProject("Catalinas", ProjectStatus.ACTIVE, today.minusDays(30), null);
+        persistProject("Santa Clara", ProjectStatus.CANCELLED, today.minusDays(30), null);
+        persistProject("Colon", ProjectStatus.ACTIVE, today.minusDays(29), null);
+        entityManager.flush();
+        LocalDate finishDate = ProjectBuilder.aProject().withStartDate(today.minusDays(30)).build().getFinishDate();
+        assertEquals(Arrays.asList("Catalinas", "Rio Turbio"), projectRepository.findNamesWithStatusAndFinishDate(
+                ProjectStatus.ACTIVE, finishDate, "", PageRequest.of(0, 2)));
+        assertEquals(Collections.singletonList("Santa Rita"), projectRepository.findNamesWithStatusAndFinishDate(
+                ProjectStatus.ACTIVE, finishDate, "Rio Turbio", PageRequest.of(0, 2)));
+    }
+
+    @Test
+    public void testProjectRepositoryFindSummariesWithStatusFinishingBetween() {
+        LocalDate today = LocalDate.now();
+        persistProject("Rio Turbio", ProjectStatus.ACTIVE, today.minusDays(30), null);
+        persistProject("Santa Rita", ProjectStatus.ACTIVE, today.minusDays(10), null);
+        persistProject("Santa Clara", ProjectStatus.CANCELLED, today.minusDays(30), null);
+        persistProject("Colon", ProjectStatus.ACTIVE, today.minusDays(400), null);
+        entityManager.flush();
+        LocalDate from = ProjectBuilder.aProject().withStartDate(today.minusDays(30)).build().getFinishDate();
+        LocalDate to = ProjectBuilder.aProject().withStartDate(today.minusDays(10)).build().getFinishDate();
+        List<ProjectSummary> projects = projectRepository.findSummariesWithStatusFinishingBetween(ProjectStatus.ACTIVE, from, to);
+        assertEquals(2, projects.size());
+        assertEquals("Rio Turbio", projects.get(0).getName());
+        assertEquals("Santa Rita", projects.get(1).getName());
+    }
+
+    @Test
+    public void testProjectRepositoryCheckProjectCreation() {
+        LocalDate today = LocalDate.now();
+        persistProject("Rio Turbio", ProjectStatus.ACTIVE, today, null);
+        persistProject("Santa Rita", ProjectStatus.COMPLETE, today, null);
+        entityManager.flush();
+        ProjectCreationCheck check = projectRepository.checkProjectCreation("Rio Turbio", "Santa Rita",
+                ProjectStatus.ACTIVE, ProjectStatus.COMPLETE);
+        assertEquals("Rio Turbio", check.getLocation().getName());
+        assertEquals(1, check.getActiveProjects());
+        assertEquals(0, check.getCompleteProjects());
+        assertEquals(1, check.getProjectsWithName());
+        check = projectRepository.checkProjectCreation("Santa Rita", "Conectando Santa Rita",
+                ProjectStatus.ACTIVE, ProjectStatus.COMPLETE);
+        assertEquals(0, check.getActiveProjects());
+        assertEquals(1, check.getCompleteProjects());
+        assertEquals(0, check.getProjectsWithName());
+        check = projectRepository.checkProjectCreation("Catalinas", "Conectando Catalinas",
+                ProjectStatus.ACTIVE, ProjectStatus.COMPLETE);
+        assertNull(check.getLocation());
+        assertEquals(0, check.getProjectsWithName());
+        check = projectRepository.checkProjectCreation("Catalinas", "Santa Rita",
+                ProjectStatus.ACTIVE, ProjectStatus.COMPLETE);
+        assertNull(check.getLocation());
+        assertEquals(0, check.getActiveProjects());
+        assertEquals(0, check.getCompleteProjects());
+        assertEquals(1, check.getProjectsWithName());
+    }
+
+}
@@ -0,0 +1,75 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class UserRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private void persistDonor(String nickname, int money) {
+        entityManager.persist(DonorBuilder.aDonorUser().withNickname(nickname).withName(nickname).
+                withMail(nickname + "@mail.com").withMoney(Money.of(money)).build());
+    }
+
+    private void persistDonation(String nickname, String projectName, int amount, LocalDate date) {
+        entityManager.persist(DonationBuilder.aDonation().withDonorNickname(nickname).withProjectName(projectName).
+                withAmount(Money.of(amount)).withDate(date).build());
+    }
+
+    @Test
+    public void testUserRepositoryRefundDonorsOfProject() {
+        LocalDate date = LocalDate.of(2020, 10, 15);
+        persistDonor("juan123", 1000);
+        persistDonor("maria456", 1000);
+        persistDonor("pedro789", 1000);
+        persistDonation("juan123", "Conectando Rio Turbio", 100, date);
+        persistDonation("juan123", "Conectando Rio Turbio", 200, date);
+        persistDonation("maria456", "Conectando Rio Turbio", 50, date);
+        persistDonation("maria456", "Conectando Santa Rita", 500, date.minusMonths(2));
+        persistDonation("pedro789", "Conectando Santa Rita", 500, date);
+        entityManager.flush();
+
+        assertEquals(2, userRepository.refundDonorsOfProject("Conectando Rio Turbio"));
+        entityManager.clear();
+
+        Donor juan = entityManager.find(Donor.class, "juan123");
+        Donor maria = entityManager.find(Donor.class, "maria456");
+        Donor pedro = entityManager.find(Donor.class, "pedro789");
+        assertEquals(Money.of(1300), juan.getMoney());
+        assertNull(juan.getLastDonationDate());
+        assertEquals(Money.of(1050), maria.getMoney());
+        assertEquals(date.minusMonths(2), maria.getLastDonationDate());
+        assertEquals(Money.of(1000), pedro.getMoney());
+    }
+
+    @Test
+    public void testUserRepositoryFindByMail() {
+        persistDonor("juan123", 1000);
+        persistDonor("maria456", 1000);
+        entityManager.flush();
+        assertEquals("maria456", userRepository.findByMail("maria456@mail.com").get().getNickname());
+        assertFalse(userRepository.findByMail("pedro789@mail.com").isPresent());
+    }
+
+}
@@ -0,0 +1,85 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ARSATStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private volatile byte[] connected;
+
+    public ARSATStubServer(int rowsPerFeed) throws IOException {
+        this(feed(rowsPerFeed, "Conectado", true), feed(rowsPerFeed, "En Planificación", false), 200);
+    }
+
+    public ARSATStubServer(byte[] connected, byte[] planned, int status) throws IOException {
+        this.connected = connected;
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/conectados.json", exchange -> respond(exchange, this.connected, status));
+        server.createContext("/futuros.json", exchange -> respond(exchange, planned, status));
+        server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    public void setConnected(byte[] connected) {
+        this.connected = connected;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, int status) throws IOException {
+        String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+        if (status == 200 && etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    public static byte[] feed(int rows, String state, boolean connected) {
+        StringBuilder json = new StringBuilder(rows * 160);
+        json.append("{\"headers\":[\"ID Sitio\",\"Localidad\",\"Poblacion Censo 2010\"],\"data\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            String name = (connected ? "Conectada " : "Planificada ") + i;
+            String population = String.valueOf(100 + i % 10_000);
+            if (connected) {
+                row(json, String.valueOf(i), "TRAZA", "SUB-TRAZA", name, "Misiones", "Departamento", population, "14/12/2017", state);
+            } else {
+                row(json, String.valueOf(i), "SUB-TRAZA", name, "Misiones", "Departamento", population, "", state, "TRAZA");
+            }
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void row(StringBuilder json, String... values) {
+        json.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(values[i]).append('"');
+        }
+        json.append(']');
+    }
+}
@@ -0,0 +1,198 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ARSATWebServiceTest {
+
+    private final LocationService locationService = mock(LocationService.class);
+    private ARSATWebService webService;
+
+    private ARSATWebService webService(String url) {
+        webService = new ARSATWebService();
+        ReflectionTestUtils.setField(webService, "locationService", locationService);
+        ReflectionTestUtils.setField(webService, "url", url);
+        ReflectionTestUtils.setField(webService, "maxConnections", 2);
+        ReflectionTestUtils.setField(webService, "connectTimeoutMillis", 1000);
+        ReflectionTestUtils.setField(webService, "readTimeoutMillis", 1000);
+        webService.start();
+        return webService;
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        webService.stop();
+    }
+
+    @Test
+    public void testARSATWebServiceParseLocationsSkipsHeaderRows() throws IOException {
+        String json = "{\"headers\":[\"Localidad\",\"Provincia\",\"Poblacion\",\"Estado\"],\"data\":[" +
+                "[\"Localidad\",\"Provincia\",\"Poblacion\",\"Estado\"]," +
+                "[\"Santa Rita\",\"Misiones\",\"1200\",\"Conectado\",{\"extra\":[1,2]}]]}";
+        List<Location> locations = webService("http://localhost/").parseLocations(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 0, 1, 2, 3);
+        assertEquals(1, locations.size());
+        assertEquals("Santa Rita", locations.get(0).getName());
+        assertEquals("Misiones", locations.get(0).getProvince());
+        assertEquals(1200, locations.get(0).getPopulation());
+        assertEquals("Conectado", locations.get(0).getState());
+    }
+
+    @Test
+    public void testARSATWebServiceFetchLocationsFromBothFeeds() throws IOException {
+        try (ARSATStubServer server = new ARSATStubServer(100)) {
+            List<Location> locations = webService(server.url()).fetchLocations();
+            assertEquals(200, locations.size());
+            assertEquals("Conectada 0", locations.get(0).getName());
+            assertEquals("En Planificación", locations.get(199).getState());
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceFetchLocationsFallsBackToBackupFiles() throws IOException {
+        try (ARSATStubServer server = new ARSATStubServer(new byte[0], new byte[0], 500)) {
+            assertEquals(18, webService(server.url()).fetchLocations().size());
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsSkipsNotModifiedFeeds() throws IOException {
+        try (ARSATStubServer server = new ARSATStubServer(100)) {
+            ARSATWebService webService = webService(server.url());
+            Map<String, Long> knownHashes = savedHashes();
+            when(locationService.findSyncHashes()).thenReturn(knownHashes);
+            ARSATWebService.SyncReport first = webService.syncLocations();
+            assertEquals(200, first.getNewRows());
+            assertEquals(0, first.getChangedRows());
+
+            ARSATWebService.SyncReport second = webService.syncLocations();
+            assertEquals(0, second.getNewRows());
+            assertEquals(200, second.getUnchangedRows());
+            assertEquals(2, second.getNotModifiedFeeds());
+            verify(locationService, times(1)).saveAll(anyList());
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsKeepsNotModifiedFeedsInTheMerge() throws IOException {
+        byte[] planned = ("{\"data\":[[\"1\",\"SUB-TRAZA\",\"Santa Rita\",\"Misiones\",\"Departamento\",\"1200\",\"\",\"En Planificación\"]]}").
+                getBytes(StandardCharsets.UTF_8);
+        try (ARSATStubServer server = new ARSATStubServer(connected("Conectado"), planned, 200)) {
+            ARSATWebService webService = webService(server.url());
+            Map<String, Long> knownHashes = savedHashes();
+            when(locationService.findSyncHashes()).thenReturn(knownHashes);
+            assertEquals(1, webService.syncLocations().getNewRows());
+
+            server.setConnected(connected("Conectado hoy"));
+            ARSATWebService.SyncReport report = webService.syncLocations();
+            assertEquals(0, report.getChangedRows());
+            assertEquals(1, report.getUnchangedRows());
+            assertEquals(1, report.getNotModifiedFeeds());
+            verify(locationService, times(1)).saveAll(anyList());
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsSkipsUnavailableFeedsWithoutBackupFiles() throws IOException {
+        ARSATStubServer server = new ARSATStubServer(100);
+        ARSATWebService webService = webService(server.url());
+        Map<String, Long> knownHashes = savedHashes();
+        when(locationService.findSyncHashes()).thenReturn(knownHashes);
+        assertEquals(200, webService.syncLocations().getNewRows());
+        server.close();
+
+        ARSATWebService.SyncReport report = webService.syncLocations();
+        assertEquals(0, report.getNewRows());
+        assertEquals(200, report.getUnchangedRows());
+        assertEquals(2, report.getUnavailableFeeds());
+        verify(locationService, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsSkipsWhileAnotherSyncIsRunning() throws Exception {
+        ARSATWebService webService = webService("http://localhost/");
+        ReentrantLock syncLock = (ReentrantLock) ReflectionTestUtils.getField(webService, "syncLock");
+        ExecutorService otherSync = Executors.newSingleThreadExecutor();
+        try {
+            otherSync.submit(syncLock::lock).get();
+            assertTrue(webService.syncLocations().isSkipped());
+            verify(locationService, never()).findSyncHashes();
+        } finally {
+            otherSync.submit(syncLock::unlock).get();
+            otherSync.shutdown();
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsUpsertsFreshEntitiesOnEverySync() throws IOException {
+        try (ARSATStubServer server = new ARSATStubServer(1)) {
+            ARSATWebService webService = webService(server.url());
+            when(locationService.findSyncHashes()).thenReturn(new HashMap<>());
+            ArgumentCaptor<List<Location>> upserts = ArgumentCaptor.forClass(List.class);
+            webService.syncLocations();
+            webService.syncLocations();
+            verify(locationService, times(2)).saveAll(upserts.capture());
+            assertNotSame(upserts.getAllValues().get(0).get(0), upserts.getAllValues().get(1).get(0));
+        }
+    }
+
+    @Test
+    public void testARSATWebServiceSyncLocationsUpsertsOnlyChangedRows() throws IOException {
+        try (ARSATStubServer server = new ARSATStubServer(100)) {
+            ARSATWebService webService = webService(server.url());
+            Map<String, Long> knownHashes = new HashMap<>();
+            for (Location location: webService.fetchLocations()) {
+                knownHashes.put(location.getName(), location.contentHash());
+            }
+            knownHashes.put("Conectada 7", 0L);
+            knownHashes.remove("Planificada 3");
+            when(locationService.findSyncHashes()).thenReturn(knownHashes);
+            ArgumentCaptor<List<Location>> upserts = ArgumentCaptor.forClass(List.class);
+
+            ARSATWebService.SyncReport report = webService.syncLocations();
+            verify(locationService).saveAll(upserts.capture());
+            assertEquals(1, report.getNewRows());
+            assertEquals(1, report.getChangedRows());
+            assertEquals(198, report.getUnchangedRows());
+            assertEquals(2, upserts.getValue().size());
+        }
+    }
+
+    private Map<String, Long> savedHashes() {
+        Map<String, Long> knownHashes = new HashMap<>();
+        when(locationService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Location> locations = invocation.getArgument(0);
+            locations.forEach(location -> knownHashes.put(location.getName(), location.getSyncHash()));
+            return locations.size();
+        });
+        return knownHashes;
+    }
+
+    private byte[] connected(String state) {
+        return ("{\"data\":[[\"1\",\"TRAZA\",\"SUB-TRAZA\",\"Santa Rita\",\"Misiones\",\"Departamento\",\"1200\",\"14/12/2017\",\"" + state + "\"]]}").
+                getBytes(StandardCharsets.UTF_8);
+    }
+}
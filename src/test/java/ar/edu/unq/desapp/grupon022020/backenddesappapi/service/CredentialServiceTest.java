@@ -0,0 +1,71 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CredentialServiceTest {
+
+    private CredentialService credentialService;
+
+    @BeforeEach
+    public void setUp() {
+        credentialService = new CredentialService();
+        ReflectionTestUtils.setField(credentialService, "bcryptStrength", 4);
+        ReflectionTestUtils.setField(credentialService, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(credentialService, "cacheTtlSeconds", 60L);
+        credentialService.start();
+    }
+
+    @Test
+    public void testCredentialServiceEncodeHashesWithBcrypt() {
+        String encodedPassword = credentialService.encode("456");
+        assertTrue(encodedPassword.startsWith("{bcrypt}$2a$04$"));
+        assertNotEquals(encodedPassword, credentialService.encode("456"));
+    }
+
+    @Test
+    public void testCredentialServiceMatchesCachesVerifiedCredentials() {
+        String encodedPassword = credentialService.encode("456");
+        assertTrue(credentialService.matches("456", encodedPassword));
+        assertTrue(credentialService.matches("456", encodedPassword));
+        assertEquals(1, credentialService.cachedCredentials());
+    }
+
+    @Test
+    public void testCredentialServiceMatchesRejectsWrongPasswordWithoutCaching() {
+        String encodedPassword = credentialService.encode("456");
+        assertFalse(credentialService.matches("654", encodedPassword));
+        assertEquals(0, credentialService.cachedCredentials());
+    }
+
+    @Test
+    public void testCredentialServiceMatchesDoesNotReuseDigestOfChangedPassword() {
+        String oldPassword = credentialService.encode("456");
+        assertTrue(credentialService.matches("456", oldPassword));
+        String newPassword = credentialService.encode("789");
+        assertFalse(credentialService.matches("456", newPassword));
+    }
+
+    @Test
+    public void testCredentialServiceMatchesRejectsPlainDonorPasswords() {
+        assertFalse(credentialService.matches("456", "{noop}456"));
+        assertFalse(credentialService.matches("456", "456"));
+        assertEquals(0, credentialService.cachedCredentials());
+    }
+
+    @Test
+    public void testCredentialServiceMatchesAdminAcceptsPlainOrHashedPasswordAndRejectsUnknownFormat() {
+        assertTrue(credentialService.matchesAdmin("admin", "{noop}admin"));
+        assertTrue(credentialService.matchesAdmin("admin", credentialService.encode("admin")));
+        assertFalse(credentialService.matchesAdmin("wrong", "{noop}admin"));
+        assertFalse(credentialService.matchesAdmin("admin", "admin"));
+        assertFalse(credentialService.matches("admin", "{noop}admin"));
+    }
+
+}
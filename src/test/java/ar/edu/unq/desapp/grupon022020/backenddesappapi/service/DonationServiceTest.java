@@ -2,6 +2,7 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
@@ -9,25 +10,28 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilde
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ReturnedDonation;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.DonationRepository;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.ProjectRepository;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -61,7 +65,6 @@ public class DonationServiceTest {
         Integer id = 7;
         Donation donation = DonationBuilder.aDonation().build();
         donation.setId(id);
-        when(donationRepository.existsById(id)).thenReturn(true);
         when(donationRepository.findById(id)).thenReturn(Optional.of(donation));
         assertEquals(donation, donationService.findById(id));
     }
@@ -70,7 +73,7 @@ public class DonationServiceTest {
     public void testDonationServiceFindByIdForNonExistingDonation() {
         MockitoAnnotations.initMocks(this);
         Integer id = 7;
-        when(donationRepository.existsById(id)).thenReturn(false);
+        when(donationRepository.findById(id)).thenReturn(Optional.empty());
         try {
             donationService.findById(id);
         } catch (DataNotFoundException e) {
@@ -83,13 +86,11 @@ public class DonationServiceTest {
     public void testDonationServiceDonate() throws InvalidDonationException, DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(BigDecimal.valueOf(9999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(9999)).build();
         String projectName = "Conectando Cruz Azul";
         Project project = ProjectBuilder.aProject().withName(projectName).build();
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
         when(donationRepository.save(any())).thenReturn(null);
@@ -97,7 +98,22 @@ public class DonationServiceTest {
         assertEquals(nickname, createdDonation.getDonorNickname());
         assertEquals(projectName, createdDonation.getProjectName());
         assertEquals(comment, createdDonation.getComment());
-        assertEquals(amount, createdDonation.getAmount().intValue());
+        assertEquals(amount, createdDonation.getAmount().getUnits());
+    }
+
+    @Test
+    public void testDonationServiceDonateFromRepeatedDonorKeepsDonorsCount() throws InvalidDonationException, DataNotFoundException {
+        MockitoAnnotations.initMocks(this);
+        String nickname = "juan123";
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(9999)).build();
+        String projectName = "Conectando Cruz Azul";
+        Project project = ProjectBuilder.aProject().withName(projectName).build();
+        when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
+        when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
+        when(donationRepository.existsByProjectNameAndDonorNickname(projectName, nickname)).thenReturn(true);
+        donationService.donate(nickname, projectName, "Comentario de test", 1200);
+        assertEquals(0, project.numberOfDonors());
+        assertEquals(Money.of(1200), project.totalAmountDonations());
     }
 
     @Test
@@ -107,7 +123,7 @@ public class DonationServiceTest {
         String projectName = "Conectando Cruz Azul";
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(false);
+        when(userRepository.findById(nickname)).thenReturn(Optional.empty());
         try {
             donationService.donate(nickname, projectName, comment, amount);
         } catch (DataNotFoundException e) {
@@ -123,8 +139,9 @@ public class DonationServiceTest {
         String projectName = "Conectando Cruz Azul";
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(false);
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).build();
+        when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
+        when(projectRepository.findById(projectName)).thenReturn(Optional.empty());
         try {
             donationService.donate(nickname, projectName, comment, amount);
         } catch (DataNotFoundException e) {
@@ -137,13 +154,11 @@ public class DonationServiceTest {
     public void testDonationServiceDonateWithInsufficientMoney() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(BigDecimal.valueOf(700)).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(700)).build();
         String projectName = "Conectando Cruz Azul";
         Project project = ProjectBuilder.aProject().withName(projectName).build();
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
         try {
@@ -158,14 +173,12 @@ public class DonationServiceTest {
     public void testDonationServiceDonateToProjectNotActive() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(BigDecimal.valueOf(9999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(9999)).build();
         String projectName = "Conectando Cruz Azul";
-        String status = ProjectStatus.COMPLETE.name();
+        ProjectStatus status = ProjectStatus.COMPLETE;
         Project project = ProjectBuilder.aProject().withName(projectName).withStatus(status).build();
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
         try {
@@ -180,13 +193,11 @@ public class DonationServiceTest {
     public void testDonationServiceDonateToProjectNotStarted() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(BigDecimal.valueOf(9999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(9999)).build();
         String projectName = "Conectando Cruz Azul";
         Project project = ProjectBuilder.aProject().withName(projectName).withStartDate(LocalDate.now().plusDays(7)).build();
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
         try {
@@ -201,13 +212,11 @@ public class DonationServiceTest {
     public void testDonationServiceDonateToProjectAlreadyFinished() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(BigDecimal.valueOf(9999)).build();
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMoney(Money.of(9999)).build();
         String projectName = "Conectando Cruz Azul";
         Project project = ProjectBuilder.aProject().withName(projectName).withStartDate(LocalDate.now().minusDays(10)).withDurationInDays(3).build();
         String comment = "Comentario de test";
         int amount = 1200;
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(projectRepository.existsById(projectName)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         when(projectRepository.findById(projectName)).thenReturn(Optional.of(project));
         try {
@@ -221,33 +230,37 @@ public class DonationServiceTest {
     @Test
     public void testDonationServiceGetTopTenBiggestDonations() {
         MockitoAnnotations.initMocks(this);
-        Donation donation_1 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(9000)).build();
-        Donation donation_2 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(1230)).build();
-        Donation donation_3 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(7650)).build();
-        Donation donation_4 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(400)).build();
-        Donation donation_5 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(2380)).build();
-        Donation donation_6 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(1100)).build();
-        Donation donation_7 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(200)).build();
-        Donation donation_8 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(115)).build();
-        Donation donation_9 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(8760)).build();
-        Donation donation_10 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(50)).build();
-        Donation donation_11 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(5700)).build();
-        Donation donation_12 = DonationBuilder.aDonation().withAmount(BigDecimal.valueOf(65)).build();
+        Donation donation_1 = DonationBuilder.aDonation().withAmount(Money.of(9000)).build();
+        Donation donation_3 = DonationBuilder.aDonation().withAmount(Money.of(7650)).build();
+        Donation donation_5 = DonationBuilder.aDonation().withAmount(Money.of(2380)).build();
+        Donation donation_9 = DonationBuilder.aDonation().withAmount(Money.of(8760)).build();
+        Donation donation_11 = DonationBuilder.aDonation().withAmount(Money.of(5700)).build();
         List<Donation> donationList = new ArrayList<>();
-        donationList.add(donation_1); donationList.add(donation_2); donationList.add(donation_3);
-        donationList.add(donation_4); donationList.add(donation_5); donationList.add(donation_6);
-        donationList.add(donation_7); donationList.add(donation_8); donationList.add(donation_9);
-        donationList.add(donation_10); donationList.add(donation_11); donationList.add(donation_12);
-        when(donationRepository.findAll()).thenReturn(donationList);
+        donationList.add(donation_1); donationList.add(donation_9); donationList.add(donation_3);
+        donationList.add(donation_11); donationList.add(donation_5);
+        when(donationRepository.findTop10ByOrderByAmountDesc()).thenReturn(donationList);
         List<Donation> topTenDonations = donationService.getTopTenBiggestDonations();
-        assertEquals(10, topTenDonations.size());
+        assertEquals(5, topTenDonations.size());
         assertEquals(donation_1, topTenDonations.get(0));
         assertEquals(donation_9, topTenDonations.get(1));
-        assertEquals(donation_3, topTenDonations.get(2));
-        assertEquals(donation_11, topTenDonations.get(3));
-        assertEquals(donation_5, topTenDonations.get(4));
-        assertFalse(topTenDonations.contains(donation_10));
-        assertFalse(topTenDonations.contains(donation_12));
+    }
+
+    @Test
+    public void testDonationServiceRefundDonations() {
+        MockitoAnnotations.initMocks(this);
+        String projectName = "Conectando Rio Turbio";
+        List<ReturnedDonation> returnedDonations = new ArrayList<>();
+        returnedDonations.add(mock(ReturnedDonation.class));
+        returnedDonations.add(mock(ReturnedDonation.class));
+        returnedDonations.add(mock(ReturnedDonation.class));
+        when(donationRepository.getReturnedDonations(projectName)).thenReturn(returnedDonations);
+        when(userRepository.refundDonorsOfProject(projectName)).thenReturn(2);
+        when(donationRepository.deleteDonationsOfProject(projectName)).thenReturn(3);
+        List<ReturnedDonation> result = donationService.refundDonations(projectName);
+        assertEquals(3, result.size());
+        InOrder inOrder = inOrder(userRepository, donationRepository);
+        inOrder.verify(userRepository).refundDonorsOfProject(projectName);
+        inOrder.verify(donationRepository).deleteDonationsOfProject(projectName);
     }
 
 }
@@ -0,0 +1,34 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class InitServiceInMemoryTest {
+
+    @Autowired
+    private WarmUpHealthIndicator warmUpHealthIndicator;
+    @Autowired
+    private ProjectService projectService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void testInitialDataIsSeededOnStartup() throws InterruptedException, DataNotFoundException {
+        assertTrue(warmUpHealthIndicator.awaitFinished(1, TimeUnit.MINUTES));
+        assertEquals(Status.UP, warmUpHealthIndicator.health().getStatus());
+        assertTrue(projectService.findAll().size() >= 13);
+        assertEquals("Conectando Santa Rita", projectService.findById("Conectando Santa Rita").getName());
+        assertEquals("Yo ayudo a Parera", projectService.findById("Yo ayudo a Parera").getName());
+        assertEquals("juan123", userService.findById("juan123").getNickname());
+    }
+
+}
@@ -10,12 +10,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -26,6 +33,8 @@ class LocationServiceTest {
 
     @Mock
     private LocationRepository locationRepository;
+    @Mock
+    private EntityManager entityManager;
 
     @Test
     public void testLocationServiceFindAll() {
@@ -44,7 +53,6 @@ class LocationServiceTest {
         MockitoAnnotations.initMocks(this);
         String name = "Santa Rita";
         Location location = LocationBuilder.aLocation().withName(name).build();
-        when(locationRepository.existsById(name)).thenReturn(true);
         when(locationRepository.findById(name)).thenReturn(Optional.of(location));
         assertEquals(location, locationService.findById(name));
     }
@@ -53,7 +61,7 @@ class LocationServiceTest {
     public void testLocationServiceFindByIdForNonExistingLocation() {
         MockitoAnnotations.initMocks(this);
         String name = "Santa Rita";
-        when(locationRepository.existsById(name)).thenReturn(false);
+        when(locationRepository.findById(name)).thenReturn(Optional.empty());
         try {
             locationService.findById(name);
         } catch (DataNotFoundException e) {
@@ -105,4 +113,25 @@ class LocationServiceTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLocationServiceFindPage() {
+        MockitoAnnotations.initMocks(this);
+        List<Location> locations = new ArrayList<>();
+        locations.add(LocationBuilder.aLocation().withName("Santa Rita").build());
+        when(locationRepository.findByNameGreaterThanOrderByNameAsc("", PageRequest.of(0, 20))).thenReturn(locations);
+        assertEquals(locations, locationService.findPage(null, 20));
+    }
+
+    @Test
+    public void testLocationServiceSaveAllPersistsNewAndMergesExistingLocations() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(locationService, "batchSize", 1);
+        Location santaRita = LocationBuilder.aLocation().withName("Santa Rita").build();
+        Location colon = LocationBuilder.aLocation().withName("Colon").build();
+        when(locationRepository.findAllNames()).thenReturn(Collections.singleton("Santa Rita"));
+        assertEquals(1, locationService.saveAll(Arrays.asList(santaRita, colon)));
+        verify(entityManager).merge(santaRita);
+        verify(entityManager).persist(colon);
+        verify(entityManager, times(2)).flush();
+    }
+}
@@ -0,0 +1,164 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMail;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.OutboxMailStatus;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.OutboxMailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MailOutboxServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @InjectMocks
+    private MailOutboxService mailOutboxService;
+
+    @Mock
+    private OutboxMailRepository outboxMailRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(mailOutboxService, "sendEmailService", sendEmailServiceOnPort(ServerSetupTest.SMTP.getPort()));
+        ReflectionTestUtils.setField(mailOutboxService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(mailOutboxService, "workers", 2);
+        ReflectionTestUtils.setField(mailOutboxService, "batchSize", 10);
+        ReflectionTestUtils.setField(mailOutboxService, "maxAttempts", 2);
+        ReflectionTestUtils.setField(mailOutboxService, "backoffMillis", 1000L);
+        mailOutboxService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mailOutboxService.stop();
+    }
+
+    private SendEmailService sendEmailServiceOnPort(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        SendEmailService sendEmailService = new SendEmailService();
+        ReflectionTestUtils.setField(sendEmailService, "emailSender", mailSender);
+        ReflectionTestUtils.setField(sendEmailService, "senderUsername", "argentinaconectada2020@gmail.com");
+        return sendEmailService;
+    }
+
+    private List<OutboxMail> dueMails(OutboxMail... mails) {
+        List<OutboxMail> dueMails = new ArrayList<>();
+        List<Long> dueIds = new ArrayList<>();
+        for (OutboxMail mail: mails) {
+            mail.setId((long) dueMails.size() + 1);
+            dueMails.add(mail);
+            dueIds.add(mail.getId());
+        }
+        when(outboxMailRepository.findDueIds(eq(OutboxMailStatus.PENDING), any(), any())).thenReturn(dueIds);
+        when(outboxMailRepository.claim(anyString(), any(), eq(dueIds), eq(OutboxMailStatus.PENDING), any())).thenReturn(dueMails.size());
+        when(outboxMailRepository.findByClaimToken(anyString())).thenReturn(dueMails);
+        return dueMails;
+    }
+
+    @Test
+    public void testMailOutboxServiceDispatchDueDeliversPendingMails() {
+        OutboxMail mail_1 = new OutboxMail("juan@mail.com", "Se te ha devuelto una donacion!", "Hola Juan", LocalDateTime.now());
+        OutboxMail mail_2 = new OutboxMail("maria@mail.com", "Se te ha devuelto una donacion!", "Hola Maria", LocalDateTime.now());
+        dueMails(mail_1, mail_2);
+        when(outboxMailRepository.countByStatus(OutboxMailStatus.PENDING)).thenReturn(0L);
+        int sent = mailOutboxService.dispatchDue();
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, sent);
+        assertEquals(2, received.length);
+        assertEquals(OutboxMailStatus.SENT, mail_1.getStatus());
+        assertEquals(OutboxMailStatus.SENT, mail_2.getStatus());
+        assertEquals(2.0, meterRegistry.counter("mail.outbox.deliveries", "result", "sent").count());
+        verify(outboxMailRepository, times(2)).save(any());
+    }
+
+    @Test
+    public void testMailOutboxServiceDispatchDueKeepsCountingAfterAFailedDelivery() {
+        OutboxMail mail_1 = new OutboxMail("juan@mail.com", "Se te ha devuelto una donacion!", "Hola Juan", LocalDateTime.now());
+        OutboxMail mail_2 = new OutboxMail("maria@mail.com", "Se te ha devuelto una donacion!", "Hola Maria", LocalDateTime.now());
+        dueMails(mail_1, mail_2);
+        when(outboxMailRepository.save(mail_1)).thenThrow(new IllegalStateException("Outbox row is locked"));
+        when(outboxMailRepository.countByStatus(OutboxMailStatus.PENDING)).thenReturn(1L);
+        assertEquals(1, mailOutboxService.dispatchDue());
+        assertEquals(OutboxMailStatus.SENT, mail_2.getStatus());
+        assertEquals(1.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+    }
+
+    @Test
+    public void testMailOutboxServiceDispatchDueSkipsMailsClaimedByAnotherInstance() {
+        OutboxMail mail = new OutboxMail("juan@mail.com", "Se te ha devuelto una donacion!", "Hola Juan", LocalDateTime.now());
+        dueMails(mail);
+        when(outboxMailRepository.claim(anyString(), any(), any(), eq(OutboxMailStatus.PENDING), any())).thenReturn(0);
+        assertEquals(0, mailOutboxService.dispatchDue());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        verify(outboxMailRepository, never()).findByClaimToken(anyString());
+        verify(outboxMailRepository, never()).save(any());
+    }
+
+    @Test
+    public void testMailOutboxServiceDispatchDueRetriesUnexpectedSendFailures() {
+        SendEmailService sendEmailService = mock(SendEmailService.class);
+        doThrow(new IllegalArgumentException("Illegal address")).when(sendEmailService).sendSimpleMessage(anyString(), anyString(), anyString());
+        ReflectionTestUtils.setField(mailOutboxService, "sendEmailService", sendEmailService);
+        OutboxMail mail = new OutboxMail("juan@", "Se te ha devuelto una donacion!", "Hola Juan", LocalDateTime.now());
+        dueMails(mail);
+        assertEquals(0, mailOutboxService.dispatchDue());
+        assertEquals(OutboxMailStatus.PENDING, mail.getStatus());
+        assertEquals(1, mail.getAttempts());
+        assertEquals("Illegal address", mail.getLastError());
+        assertTrue(mail.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(1.0, meterRegistry.counter("mail.outbox.deliveries", "result", "retry").count());
+        verify(outboxMailRepository, times(1)).save(mail);
+    }
+
+    @Test
+    public void testMailOutboxServiceDispatchDueRetriesThenFails() {
+        ReflectionTestUtils.setField(mailOutboxService, "sendEmailService", sendEmailServiceOnPort(ServerSetupTest.SMTP.getPort() + 1));
+        OutboxMail mail = new OutboxMail("juan@mail.com", "Se te ha devuelto una donacion!", "Hola Juan", LocalDateTime.now());
+        dueMails(mail);
+        when(outboxMailRepository.countByStatus(OutboxMailStatus.PENDING)).thenReturn(1L);
+        assertEquals(0, mailOutboxService.dispatchDue());
+        assertEquals(OutboxMailStatus.PENDING, mail.getStatus());
+        assertEquals(1, mail.getAttempts());
+        assertTrue(mail.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals(1.0, meterRegistry.get("mail.outbox.pending").gauge().value());
+        assertEquals(0, mailOutboxService.dispatchDue());
+        assertEquals(OutboxMailStatus.FAILED, mail.getStatus());
+        assertEquals(2, mail.getAttempts());
+    }
+
+}
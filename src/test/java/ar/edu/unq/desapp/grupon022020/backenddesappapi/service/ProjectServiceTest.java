@@ -2,6 +2,7 @@ package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Location;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Project;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.ProjectStatus;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
@@ -10,29 +11,36 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuil
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidProjectOperationException;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.DonationRepository;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.LocationRepository;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectCreationCheck;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.ProjectRepository;
-import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -44,13 +52,18 @@ public class ProjectServiceTest {
     @Mock
     private ProjectRepository projectRepository;
     @Mock
-    private LocationRepository locationRepository;
-    @Mock
-    private UserRepository userRepository;
-    @Mock
-    private DonationRepository donationRepository;
-    @Mock
     private DonationService donationService;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private void stubCreationCheck(String name, String locationName, Location location, long activeProjects, long completeProjects, long projectsWithName) {
+        ProjectCreationCheck check = mock(ProjectCreationCheck.class);
+        when(check.getLocation()).thenReturn(location);
+        when(check.getActiveProjects()).thenReturn(activeProjects);
+        when(check.getCompleteProjects()).thenReturn(completeProjects);
+        when(check.getProjectsWithName()).thenReturn(projectsWithName);
+        when(projectRepository.checkProjectCreation(locationName, name, ProjectStatus.ACTIVE, ProjectStatus.COMPLETE)).thenReturn(check);
+    }
 
     @Test
     public void testProjectServiceFindAll() {
@@ -69,7 +82,6 @@ public class ProjectServiceTest {
         MockitoAnnotations.initMocks(this);
         String name = "Conectando Santa Rita";
         Project project = ProjectBuilder.aProject().withName(name).build();
-        when(projectRepository.existsById(name)).thenReturn(true);
         when(projectRepository.findById(name)).thenReturn(Optional.of(project));
         assertEquals(project, projectService.findById(name));
     }
@@ -78,7 +90,7 @@ public class ProjectServiceTest {
     public void testProjectServiceFindByIdForNonExistingProject() {
         MockitoAnnotations.initMocks(this);
         String name = "Conectando Santa Rita";
-        when(projectRepository.existsById(name)).thenReturn(false);
+        when(projectRepository.findById(name)).thenReturn(Optional.empty());
         try {
             projectService.findById(name);
         } catch (DataNotFoundException e) {
@@ -97,9 +109,7 @@ public class ProjectServiceTest {
         int durationInDays = 60;
         String locationName = "Rio Turbio";
         Location location = LocationBuilder.aLocation().withName(locationName).build();
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(false);
-        when(locationRepository.existsById(locationName)).thenReturn(true);
-        when(locationRepository.findById(locationName)).thenReturn(Optional.of(location));
+        stubCreationCheck(name, locationName, location, 0, 0, 0);
         when(projectRepository.save(any())).thenReturn(null);
         Project createdProject = projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
         assertEquals(name, createdProject.getName());
@@ -119,16 +129,34 @@ public class ProjectServiceTest {
         String startDate = LocalDate.now().plusDays(10).toString();
         int durationInDays = 60;
         String locationName = "Rio Turbio";
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(false);
-        when(locationRepository.existsById(locationName)).thenReturn(false);
+        stubCreationCheck(name, locationName, null, 0, 0, 0);
         try {
             projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
+            fail();
         } catch (DataNotFoundException e) {
             String message = "There is no location with name " + locationName;
             assertEquals(message, e.getMessage());
         }
     }
 
+    @Test
+    public void testProjectServiceCreateProjectForNonExistingLocationAndAlreadyUsedProjectName() throws InvalidProjectOperationException {
+        MockitoAnnotations.initMocks(this);
+        String name = "Conectando Rio Turbio";
+        String startDate = LocalDate.now().plusDays(10).toString();
+        String locationName = "Rio Turbio";
+        stubCreationCheck(name, locationName, null, 0, 0, 1);
+        try {
+            projectService.createProject(name, 1300, 75, startDate, 60, locationName);
+            fail();
+        } catch (DataNotFoundException e) {
+            String message = "There is no location with name " + locationName +
+                    "; There is already a project with name " + name;
+            assertEquals(message, e.getMessage());
+        }
+        verify(projectRepository, never()).save(any());
+    }
+
     @Test
     public void testProjectServiceCreateProjectForAlreadyOpenProject() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
@@ -138,9 +166,7 @@ public class ProjectServiceTest {
         String startDate = LocalDate.now().plusDays(10).toString();
         int durationInDays = 60;
         String locationName = "Rio Turbio";
-        when(locationRepository.existsById(locationName)).thenReturn(true);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(true);
-        when(projectRepository.existsById(name)).thenReturn(false);
+        stubCreationCheck(name, locationName, LocationBuilder.aLocation().withName(locationName).build(), 1, 0, 0);
         try {
             projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
         } catch (InvalidProjectOperationException e) {
@@ -158,10 +184,7 @@ public class ProjectServiceTest {
         String startDate = LocalDate.now().plusDays(10).toString();
         int durationInDays = 60;
         String locationName = "Conectando Santa Clara";
-        when(locationRepository.existsById(locationName)).thenReturn(true);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(false);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.COMPLETE.name())).thenReturn(true);
-        when(projectRepository.existsById(name)).thenReturn(false);
+        stubCreationCheck(name, locationName, LocationBuilder.aLocation().withName(locationName).build(), 0, 1, 0);
         try {
             projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
         } catch (InvalidProjectOperationException e) {
@@ -179,10 +202,7 @@ public class ProjectServiceTest {
         String startDate = LocalDate.now().plusDays(10).toString();
         int durationInDays = 60;
         String locationName = "Paraiso";
-        when(locationRepository.existsById(locationName)).thenReturn(true);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(false);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.COMPLETE.name())).thenReturn(false);
-        when(projectRepository.existsById(name)).thenReturn(true);
+        stubCreationCheck(name, locationName, LocationBuilder.aLocation().withName(locationName).build(), 0, 0, 1);
         try {
             projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
         } catch (InvalidProjectOperationException e) {
@@ -200,10 +220,7 @@ public class ProjectServiceTest {
         String startDate = LocalDate.now().minusDays(10).toString();
         int durationInDays = 60;
         String locationName = "Conectando Santa Clara";
-        when(locationRepository.existsById(locationName)).thenReturn(true);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.ACTIVE.name())).thenReturn(false);
-        when(projectRepository.existsProjectForLocationWithStatus(locationName, ProjectStatus.COMPLETE.name())).thenReturn(false);
-        when(projectRepository.existsById(name)).thenReturn(false);
+        stubCreationCheck(name, locationName, LocationBuilder.aLocation().withName(locationName).build(), 0, 0, 0);
         try {
             projectService.createProject(name, factor, closurePercentage, startDate, durationInDays, locationName);
         } catch (InvalidProjectOperationException e) {
@@ -212,38 +229,54 @@ public class ProjectServiceTest {
         }
     }
 
+    @Test
+    public void testProjectServiceCreateProjectReportsEveryViolation() throws DataNotFoundException {
+        MockitoAnnotations.initMocks(this);
+        String name = "Conectando Paraiso";
+        String startDate = LocalDate.now().minusDays(10).toString();
+        String locationName = "Paraiso";
+        stubCreationCheck(name, locationName, LocationBuilder.aLocation().withName(locationName).build(), 1, 1, 1);
+        try {
+            projectService.createProject(name, 1300, 75, startDate, 60, locationName);
+            fail();
+        } catch (InvalidProjectOperationException e) {
+            String message = "There is already an open project for location " + locationName +
+                    "; There is already a complete project for location " + locationName +
+                    "; There is already a project with name " + name +
+                    "; Start day of " + startDate + " for project " + name + " is not valid";
+            assertEquals(message, e.getMessage());
+        }
+        verify(projectRepository, never()).save(any());
+    }
+
     @Test
     public void testProjectServiceCancelProject() throws DataNotFoundException, InvalidDonationException, InvalidProjectOperationException {
         MockitoAnnotations.initMocks(this);
         String name = "Conectando Rio Turbio";
         Project project = ProjectBuilder.aProject().withName(name).withStartDate(LocalDate.now()).withDurationInDays(10).build();
-        List<Donor> donors = new ArrayList<>();
-        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(BigDecimal.valueOf(1000)).build();
-        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withMoney(BigDecimal.valueOf(1000)).build();
-        donor_1.donate(BigDecimal.valueOf(200), "Donation 1", project);
-        donor_2.donate(BigDecimal.valueOf(200), "Donation 2", project);
+        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(Money.of(1000)).build();
+        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withMoney(Money.of(1000)).build();
+        donor_1.donate(Money.of(200), "Donation 1", project);
+        donor_2.donate(Money.of(200), "Donation 2", project);
         assertEquals(2, project.getDonations().size());
         assertEquals(2, project.numberOfDonors());
-        assertEquals(BigDecimal.valueOf(400), project.totalAmountDonations());
+        assertEquals(Money.of(400), project.totalAmountDonations());
         assertEquals(LocalDate.now().plusDays(10), project.getFinishDate());
-        donors.add(donor_1); donors.add(donor_2);
-        when(projectRepository.existsById(name)).thenReturn(true);
         when(projectRepository.findById(name)).thenReturn(Optional.of(project));
-        when(userRepository.findAll()).thenReturn(donors);
-        when(userRepository.save(any())).thenReturn(null);
         when(projectRepository.save(any())).thenReturn(null);
         projectService.cancelProject(name);
+        verify(donationService).refundDonations(name);
         assertEquals(0, project.getDonations().size());
         assertEquals(0, project.numberOfDonors());
-        assertEquals(BigDecimal.valueOf(0), project.totalAmountDonations());
-        assertEquals(ProjectStatus.CANCELLED.name(), project.getStatus());
+        assertEquals(Money.of(0), project.totalAmountDonations());
+        assertEquals(ProjectStatus.CANCELLED, project.getStatus());
     }
 
     @Test
     public void testProjectServiceCancelProjectForNonExistingProject () throws InvalidProjectOperationException {
         MockitoAnnotations.initMocks(this);
         String name = "Conectando Rio Turbio";
-        when(projectRepository.existsById(name)).thenReturn(false);
+        when(projectRepository.findById(name)).thenReturn(Optional.empty());
         try {
             projectService.cancelProject(name);
         } catch (DataNotFoundException e) {
@@ -256,9 +289,8 @@ public class ProjectServiceTest {
     public void testProjectServiceCancelProjectForNonActiveProject () throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String name = "Conectando Rio Turbio";
-        String status = ProjectStatus.INCOMPLETE.name();
+        ProjectStatus status = ProjectStatus.INCOMPLETE;
         Project project = ProjectBuilder.aProject().withName(name).withStatus(status).build();
-        when(projectRepository.existsById(name)).thenReturn(true);
         when(projectRepository.findById(name)).thenReturn(Optional.of(project));
         try {
             projectService.cancelProject(name);
@@ -269,68 +301,52 @@ public class ProjectServiceTest {
     }
 
     @Test
-    public void testProjectServiceGetTopTenDonationStarvedLocations () throws InvalidDonationException {
+    public void testProjectServiceGetTopTenDonationStarvedLocations () {
         MockitoAnnotations.initMocks(this);
-        Donor donor = DonorBuilder.aDonorUser().withMoney(BigDecimal.valueOf(1000)).build();
         Location location_1 = LocationBuilder.aLocation().withName("Rio Turbio").build();
         Location location_2 = LocationBuilder.aLocation().withName("Santa Rita").build();
-        Project project_1 = ProjectBuilder.aProject().build();
-        Project project_2 = ProjectBuilder.aProject().build();
-        Project project_3 = ProjectBuilder.aProject().build();
-        Project project_4 = ProjectBuilder.aProject().build();
-        Project project_5 = ProjectBuilder.aProject().build();
-        Project project_6 = ProjectBuilder.aProject().build();
-        Project project_7 = ProjectBuilder.aProject().withLocation(location_1).build();
-        Project project_8 = ProjectBuilder.aProject().build();
-        Project project_9 = ProjectBuilder.aProject().build();
-        Project project_10 = ProjectBuilder.aProject().build();
-        Project project_11 = ProjectBuilder.aProject().withLocation(location_2).build();
-        Project project_12 = ProjectBuilder.aProject().build();
-        donor.donate(BigDecimal.valueOf(100), "Donation 1", project_7);
-        donor.donate(BigDecimal.valueOf(100), "Donation 2", project_11);
-        List<Project> projectList = new ArrayList<>();
-        projectList.add(project_1); projectList.add(project_2); projectList.add(project_3);
-        projectList.add(project_4); projectList.add(project_5); projectList.add(project_6);
-        projectList.add(project_7); projectList.add(project_8); projectList.add(project_9);
-        projectList.add(project_10); projectList.add(project_11); projectList.add(project_12);
-        when(projectRepository.getProjectsWithStatus(ProjectStatus.ACTIVE.name())).thenReturn(projectList);
-        project_7.getDonations().get(0).setDate(LocalDate.now().minusDays(100));
-        project_11.getDonations().get(0).setDate(LocalDate.now().plusDays(100));
+        List<Location> starvedLocations = new ArrayList<>();
+        starvedLocations.add(location_1); starvedLocations.add(location_2);
+        when(projectRepository.getLocationsByLastActivity(ProjectStatus.ACTIVE, PageRequest.of(0, 10))).thenReturn(starvedLocations);
         List<Location> locations = projectService.getTopTenDonationStarvedLocations();
-        assertEquals(10, locations.size());
-        assertTrue(locations.contains(location_1));
-        assertFalse(locations.contains(location_2));
+        assertEquals(starvedLocations, locations);
     }
 
     @Test
     public void testProjectServiceCloseFinishedProjects () throws InvalidDonationException {
         MockitoAnnotations.initMocks(this);
-        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(BigDecimal.valueOf(1000)).build();
-        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withMoney(BigDecimal.valueOf(1000)).build();
-        List<Donor> donorsList = new ArrayList<>();
-        donorsList.add(donor_1); donorsList.add(donor_2);
-        Project project_1 = ProjectBuilder.aProject().withFactor(100).withClosurePercentage(100).build();
-        Project project_2 = ProjectBuilder.aProject().withFactor(1000).withClosurePercentage(100).build();
-        Project project_3 = ProjectBuilder.aProject().withFactor(100).withClosurePercentage(100).build();
-        Project project_4 = ProjectBuilder.aProject().withFactor(1000).withClosurePercentage(100).build();
+        Donor donor_1 = DonorBuilder.aDonorUser().withNickname("juan123").withMoney(Money.of(1000)).build();
+        Donor donor_2 = DonorBuilder.aDonorUser().withNickname("maria456").withMoney(Money.of(1000)).build();
+        Project project_1 = ProjectBuilder.aProject().withName("Project 1").withFactor(100).withClosurePercentage(100).build();
+        Project project_2 = ProjectBuilder.aProject().withName("Project 2").withFactor(1000).withClosurePercentage(100).build();
+        Project project_3 = ProjectBuilder.aProject().withName("Project 3").withFactor(100).withClosurePercentage(100).build();
+        Project project_4 = ProjectBuilder.aProject().withName("Project 4").withFactor(1000).withClosurePercentage(100).build();
         List<Project> projectList = new ArrayList<>();
         projectList.add(project_1); projectList.add(project_2);
         projectList.add(project_3); projectList.add(project_4);
 
-        assertEquals(ProjectStatus.ACTIVE.name(), project_1.getStatus());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_2.getStatus());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_3.getStatus());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_4.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_1.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_2.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_3.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_4.getStatus());
 
-        donor_1.donate(BigDecimal.valueOf(99), "Donation 1", project_1);
-        donor_2.donate(BigDecimal.valueOf(500), "Donation 2", project_1);
-        donor_1.donate(BigDecimal.valueOf(100), "Donation 3", project_2);
-        donor_2.donate(BigDecimal.valueOf(100), "Donation 4", project_2);
-        donor_1.donate(BigDecimal.valueOf(200), "Donation 5", project_3);
-        when(projectRepository.getProjectsWithStatus(ProjectStatus.ACTIVE.name())).thenReturn(projectList);
-        when(userRepository.findAll()).thenReturn(donorsList);
-        when(donationRepository.findAll()).thenReturn(null);
-        doAnswer(InvocationOnMock::callRealMethod).when(donationService).returnDonation(any(), any());
+        donor_1.donate(Money.of(99), "Donation 1", project_1);
+        donor_2.donate(Money.of(500), "Donation 2", project_1);
+        donor_1.donate(Money.of(100), "Donation 3", project_2);
+        donor_2.donate(Money.of(100), "Donation 4", project_2);
+        donor_1.donate(Money.of(200), "Donation 5", project_3);
+        for (Project project: projectList) {
+            when(projectRepository.findById(project.getName())).thenReturn(Optional.of(project));
+        }
+        when(projectRepository.findNamesWithStatusAndFinishDate(ProjectStatus.ACTIVE, LocalDate.now(), "", PageRequest.of(0, 100))).
+                thenReturn(Arrays.asList(project_1.getName(), project_2.getName()));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(projectService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(projectService, "closureWorkers", 2);
+        ReflectionTestUtils.setField(projectService, "closureChunkSize", 100);
+        projectService.start();
         project_1.setStartDate(LocalDate.now().minusDays(10));
         project_1.setFinishDate(LocalDate.now());
         project_2.setStartDate(LocalDate.now().minusDays(10));
@@ -340,30 +356,44 @@ public class ProjectServiceTest {
         project_4.setStartDate(LocalDate.now().minusDays(10));
         project_4.setFinishDate(LocalDate.now().plusDays(10));
 
-        assertEquals(ProjectStatus.COMPLETE.name(), project_1.getStatus());
+        assertEquals(ProjectStatus.COMPLETE, project_1.getStatus());
         assertEquals(2, project_1.getDonations().size());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_2.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_2.getStatus());
         assertEquals(2, project_2.getDonations().size());
-        assertEquals(ProjectStatus.COMPLETE.name(), project_3.getStatus());
+        assertEquals(ProjectStatus.COMPLETE, project_3.getStatus());
         assertEquals(1, project_3.getDonations().size());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_4.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_4.getStatus());
         assertEquals(0, project_4.getDonations().size());
 
-        projectService.closeFinishedProjects();
+        assertEquals(1, projectService.closeFinishedProjects());
+        projectService.stop();
 
-        assertEquals(ProjectStatus.COMPLETE.name(), project_1.getStatus());
+        assertEquals(ProjectStatus.COMPLETE, project_1.getStatus());
         assertEquals(2, project_1.getDonations().size());
-        assertEquals(ProjectStatus.INCOMPLETE.name(), project_2.getStatus());
+        assertEquals(ProjectStatus.INCOMPLETE, project_2.getStatus());
         assertEquals(0, project_2.getDonations().size());
-        assertEquals(ProjectStatus.COMPLETE.name(), project_3.getStatus());
+        assertEquals(ProjectStatus.COMPLETE, project_3.getStatus());
         assertEquals(1, project_3.getDonations().size());
-        assertEquals(ProjectStatus.ACTIVE.name(), project_4.getStatus());
+        assertEquals(ProjectStatus.ACTIVE, project_4.getStatus());
         assertEquals(0, project_4.getDonations().size());
 
         assertTrue(project_1.hasReachedGoal());
         assertFalse(project_2.hasReachedGoal());
         assertTrue(project_3.hasReachedGoal());
         assertFalse(project_4.hasReachedGoal());
+        assertEquals(1, meterRegistry.counter("project.closure.projects").count());
+        assertEquals(1, meterRegistry.timer("project.closure.duration").count());
+    }
+
+    @Test
+    public void testProjectServiceFindAllEndingThisMonth() {
+        MockitoAnnotations.initMocks(this);
+        YearMonth month = YearMonth.now();
+        List<ProjectSummary> projects = new ArrayList<>();
+        projects.add(mock(ProjectSummary.class));
+        when(projectRepository.findSummariesWithStatusFinishingBetween(ProjectStatus.ACTIVE,
+                month.atDay(1), month.atEndOfMonth())).thenReturn(projects);
+        assertEquals(projects, projectService.findAllEndingThisMonth());
     }
 
 }
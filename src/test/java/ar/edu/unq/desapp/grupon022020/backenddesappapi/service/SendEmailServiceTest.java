@@ -0,0 +1,125 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SendEmailServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private SendEmailService sendEmailService;
+
+    @BeforeEach
+    public void setUp() {
+        sendEmailService = sendEmailService();
+        sendEmailService.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sendEmailService.stop();
+    }
+
+    private SendEmailService sendEmailService() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        SendEmailService sendEmailService = new SendEmailService();
+        ReflectionTestUtils.setField(sendEmailService, "emailSender", mailSender);
+        ReflectionTestUtils.setField(sendEmailService, "senderUsername", "argentinaconectada2020@gmail.com");
+        ReflectionTestUtils.setField(sendEmailService, "bulkWorkers", 2);
+        ReflectionTestUtils.setField(sendEmailService, "bulkProgressInterval", 2);
+        ReflectionTestUtils.setField(sendEmailService, "bulkRatePerSecond", 0.0);
+        return sendEmailService;
+    }
+
+    @Test
+    public void testSendEmailServiceSendBulkMessageWithAttachment(@TempDir Path directory) throws Exception {
+        Path rankings = Files.write(directory.resolve("rankings.txt"), "STARVED LOCATIONS RANKING".getBytes());
+        List<DonorSummary> donors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            DonorSummary donor = mock(DonorSummary.class);
+            when(donor.getName()).thenReturn("Donor " + i);
+            when(donor.getMail()).thenReturn("donor" + i + "@mail.com");
+            donors.add(donor);
+        }
+        int sent = sendEmailService.sendBulkMessageWithAttachment(donors, "Rankings",
+                donor -> "Hola " + donor.getName(), rankings.toString(), "Rankings.txt");
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(5, sent);
+        assertEquals(5, received.length);
+        for (MimeMessage message: received) {
+            assertEquals(2, ((MimeMultipart) message.getContent()).getCount());
+        }
+    }
+
+    @Test
+    public void testSendEmailServiceSendBulkMessageIsRateLimitedAtSendTime(@TempDir Path directory) throws Exception {
+        ReflectionTestUtils.setField(sendEmailService, "bulkRatePerSecond", 10.0);
+        Path rankings = Files.write(directory.resolve("rankings.txt"), "STARVED LOCATIONS RANKING".getBytes());
+        List<DonorSummary> donors = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            DonorSummary donor = mock(DonorSummary.class);
+            when(donor.getMail()).thenReturn("donor" + i + "@mail.com");
+            donors.add(donor);
+        }
+        long start = System.nanoTime();
+        int sent = sendEmailService.sendBulkMessageWithAttachment(donors, "Rankings",
+                donor -> "Hola", rankings.toString(), "Rankings.txt");
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(6, sent);
+        assertEquals(6, greenMail.getReceivedMessages().length);
+        // Six permits at 10 per second: the first is immediate, the last one waits half a second
+        assertTrue(elapsedMillis >= 450, "Sent 6 mails in " + elapsedMillis + " ms");
+    }
+
+    @Test
+    public void testSendEmailServiceSendBulkMessageSkipsRecipientsThatFailToBuild(@TempDir Path directory) throws Exception {
+        Path rankings = Files.write(directory.resolve("rankings.txt"), "STARVED LOCATIONS RANKING".getBytes());
+        List<DonorSummary> donors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            DonorSummary donor = mock(DonorSummary.class);
+            when(donor.getName()).thenReturn(i == 0 ? null : "Donor " + i);
+            when(donor.getMail()).thenReturn("donor" + i + "@mail.com");
+            donors.add(donor);
+        }
+        int sent = sendEmailService.sendBulkMessageWithAttachment(donors, "Rankings",
+                donor -> "Hola " + donor.getName().trim(), rankings.toString(), "Rankings.txt");
+        assertEquals(3, sent);
+        assertEquals(3, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    public void testSendEmailServiceSendBulkMessageWithMissingAttachment(@TempDir Path directory) {
+        try {
+            sendEmailService.sendBulkMessageWithAttachment(new ArrayList<>(), "Rankings",
+                    donor -> "Hola", directory.resolve("missing.txt").toString(), "Rankings.txt");
+        } catch (IOException | InterruptedException e) {
+            assertEquals(0, greenMail.getReceivedMessages().length);
+        }
+    }
+
+}
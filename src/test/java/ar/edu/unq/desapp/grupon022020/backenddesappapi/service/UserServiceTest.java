@@ -1,25 +1,31 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.LoginException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.persistence.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -31,6 +37,16 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CredentialService credentialService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(userService, "nicknameCacheMaximumSize", 100L);
+        userService.start();
+    }
+
     @Test
     public void testUserServiceFindAll() {
         MockitoAnnotations.initMocks(this);
@@ -48,7 +64,6 @@ public class UserServiceTest {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
         Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).build();
-        when(userRepository.existsById(nickname)).thenReturn(true);
         when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
         assertEquals(donor, userService.findById(nickname));
     }
@@ -58,7 +73,7 @@ public class UserServiceTest {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
         Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).build();
-        when(userRepository.existsById(nickname)).thenReturn(false);
+        when(userRepository.findById(nickname)).thenReturn(Optional.empty());
         try {
             assertEquals(donor, userService.findById(nickname));
         } catch (DataNotFoundException e) {
@@ -67,6 +82,16 @@ public class UserServiceTest {
         }
     }
 
+    @Test
+    public void testUserServiceFindSummaryById() throws DataNotFoundException {
+        MockitoAnnotations.initMocks(this);
+        String nickname = "juan123";
+        DonorSummary summary = mock(DonorSummary.class);
+        when(userRepository.findSummaryByNickname(nickname)).thenReturn(Optional.of(summary));
+        assertEquals(summary, userService.findSummaryById(nickname));
+        verify(userRepository, never()).findById(nickname);
+    }
+
     @Test
     public void testUserServiceCreateDonorUser() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
@@ -75,20 +100,22 @@ public class UserServiceTest {
         String mail = "maria@mail.com";
         String password = "456";
         int money = 1570;
+        String encodedPassword = "{bcrypt}$2a$10$encoded";
         when(userRepository.existsById(nickname)).thenReturn(false);
+        when(credentialService.encode(password)).thenReturn(encodedPassword);
         Donor donor = DonorBuilder.aDonorUser().
                 withNickname(nickname).
                 withName(name).
                 withMail(mail).
                 withPassword(password).
-                withMoney(BigDecimal.valueOf(money)).
+                withMoney(Money.of(money)).
                 build();
         userService.createDonorUser(donor);
         assertEquals(nickname, donor.getNickname());
         assertEquals(name, donor.getName());
         assertEquals(mail, donor.getMail());
-        assertEquals(password, donor.getPassword());
-        assertEquals(BigDecimal.valueOf(money), donor.getMoney());
+        assertEquals(encodedPassword, donor.getPassword());
+        assertEquals(Money.of(money), donor.getMoney());
         assertEquals(0, donor.getPoints());
     }
 
@@ -106,7 +133,7 @@ public class UserServiceTest {
                 withName(name).
                 withMail(mail).
                 withPassword(password).
-                withMoney(BigDecimal.valueOf(money)).
+                withMoney(Money.of(money)).
                 build();
         try {
             userService.createDonorUser(donor);
@@ -121,8 +148,9 @@ public class UserServiceTest {
         MockitoAnnotations.initMocks(this);
         String nickname = "maria456";
         String password = "456";
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(userRepository.loginUser(nickname, password)).thenReturn(true);
+        String encodedPassword = "{bcrypt}$2a$10$encoded";
+        when(userRepository.findPasswordByNickname(nickname)).thenReturn(Optional.of(encodedPassword));
+        when(credentialService.matches(password, encodedPassword)).thenReturn(true);
         assertDoesNotThrow(() -> userService.loginDonorUser(nickname, password));
     }
 
@@ -131,8 +159,7 @@ public class UserServiceTest {
         MockitoAnnotations.initMocks(this);
         String nickname = "maria456";
         String password = "456";
-        when(userRepository.existsById(nickname)).thenReturn(false);
-        when(userRepository.loginUser(nickname, password)).thenReturn(true);
+        when(userRepository.findPasswordByNickname(nickname)).thenReturn(Optional.empty());
         try {
             userService.loginDonorUser(nickname, password);
         } catch (LoginException e) {
@@ -146,8 +173,9 @@ public class UserServiceTest {
         MockitoAnnotations.initMocks(this);
         String nickname = "maria456";
         String password = "456";
-        when(userRepository.existsById(nickname)).thenReturn(true);
-        when(userRepository.loginUser(nickname, password)).thenReturn(false);
+        String encodedPassword = "{bcrypt}$2a$10$encoded";
+        when(userRepository.findPasswordByNickname(nickname)).thenReturn(Optional.of(encodedPassword));
+        when(credentialService.matches(password, encodedPassword)).thenReturn(false);
         try {
             userService.loginDonorUser(nickname, password);
         } catch (LoginException e) {
@@ -156,14 +184,62 @@ public class UserServiceTest {
         }
     }
 
+    @Test
+    public void testUserServiceLoginAdmin() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(userService, "adminName", "admin");
+        ReflectionTestUtils.setField(userService, "adminPassword", "{noop}admin");
+        when(credentialService.matchesAdmin("admin", "{noop}admin")).thenReturn(true);
+        assertDoesNotThrow(() -> userService.loginAdmin("admin", "admin"));
+    }
+
+    @Test
+    public void testUserServiceLoginAdminForWrongPassword() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(userService, "adminName", "admin");
+        ReflectionTestUtils.setField(userService, "adminPassword", "{noop}admin");
+        when(credentialService.matchesAdmin("wrong", "{noop}admin")).thenReturn(false);
+        try {
+            userService.loginAdmin("admin", "wrong");
+        } catch (LoginException e) {
+            assertEquals("Password is incorrect", e.getMessage());
+        }
+    }
+
     @Test
     public void testUserLoginByMail() throws DataNotFoundException {
         MockitoAnnotations.initMocks(this);
         String nickname = "juan123";
         String mail = "juan@mail.com";
         Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMail(mail).build();
-        when(userRepository.findAll()).thenReturn(new ArrayList<Donor>(Arrays.asList(donor)));
+        when(userRepository.findByMail(mail)).thenReturn(Optional.of(donor));
         assertDoesNotThrow(() -> userService.loginByMail(mail));
     }
 
+    @Test
+    public void testUserServiceLoginByMailUsesCachedNickname() throws LoginException {
+        MockitoAnnotations.initMocks(this);
+        String nickname = "juan123";
+        String mail = "juan@mail.com";
+        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).withMail(mail).build();
+        when(userRepository.findByMail(mail)).thenReturn(Optional.of(donor));
+        when(userRepository.findById(nickname)).thenReturn(Optional.of(donor));
+        assertEquals(donor, userService.loginByMail(mail));
+        assertEquals(donor, userService.loginByMail(mail));
+        verify(userRepository, times(1)).findByMail(mail);
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    public void testUserServiceLoginByMailForUnregisteredUser() {
+        MockitoAnnotations.initMocks(this);
+        String mail = "juan@mail.com";
+        when(userRepository.findByMail(mail)).thenReturn(Optional.empty());
+        try {
+            userService.loginByMail(mail);
+        } catch (LoginException e) {
+            assertEquals("Unregistered user", e.getMessage());
+        }
+    }
+
 }
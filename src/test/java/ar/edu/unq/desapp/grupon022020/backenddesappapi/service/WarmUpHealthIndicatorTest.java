@@ -0,0 +1,32 @@
+package ar.edu.unq.desapp.grupon022020.backenddesappapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WarmUpHealthIndicatorTest {
+
+    @Test
+    public void testWarmUpHealthIndicatorFlipsWhenLoaded() throws InterruptedException {
+        WarmUpHealthIndicator indicator = new WarmUpHealthIndicator();
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        assertFalse(indicator.awaitFinished(1, TimeUnit.MILLISECONDS));
+        indicator.loaded(1500);
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(1500L, indicator.health().getDetails().get("elapsedMillis"));
+        assertTrue(indicator.awaitFinished(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWarmUpHealthIndicatorIsDownWhenFailed() {
+        WarmUpHealthIndicator indicator = new WarmUpHealthIndicator();
+        indicator.failed(new IllegalStateException("ARSAT"));
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+}
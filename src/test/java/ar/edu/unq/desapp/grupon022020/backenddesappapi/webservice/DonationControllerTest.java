@@ -1,6 +1,7 @@
 package ar.edu.unq.desapp.grupon022020.backenddesappapi.webservice;
 
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donation;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Money;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonationBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidDonationException;
@@ -14,7 +15,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -58,7 +58,7 @@ public class DonationControllerTest {
         String projectName = "Conectando Santa Rita";
         String comment = "First donation";
         int value = 1230;
-        BigDecimal amount = BigDecimal.valueOf(value);
+        Money amount = Money.of(value);
         Donation donation = DonationBuilder.aDonation().withDonorNickname(nickname).withProjectName(projectName).withComment(comment).withAmount(amount).build();
         when(donationService.donate(nickname, projectName, comment, value)).thenReturn(donation);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) donationController.donate(nickname, projectName, comment, value);
@@ -71,7 +71,7 @@ public class DonationControllerTest {
         String projectName = "Conectando Mercedes";
         String comment = "My donation";
         int value = 1230;
-        BigDecimal amount = BigDecimal.valueOf(value);
+        Money amount = Money.of(value);
         Donation donation = DonationBuilder.aDonation().withDonorNickname(nickname).withProjectName(projectName).withComment(comment).withAmount(amount).build();
         when(donationService.donate(nickname, projectName, comment, value)).thenReturn(donation);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) donationController.donate(nickname, projectName, comment, value);
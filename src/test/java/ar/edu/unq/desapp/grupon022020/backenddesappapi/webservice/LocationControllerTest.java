@@ -18,6 +18,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
@@ -108,4 +109,25 @@ public class LocationControllerTest {
         assertEquals("Location could not be created: " + message, httpResponse.getBody());
     }
 
+    @Test
+    public void testLocationControllerLocationsPageWithNextCursor() {
+        List<Location> locations = new ArrayList<>();
+        locations.add(LocationBuilder.aLocation().withName("Colon").build());
+        locations.add(LocationBuilder.aLocation().withName("Santa Clara").build());
+        when(locationService.findPage("Bernal", 2)).thenReturn(locations);
+        ResponseEntity<?> httpResponse = locationController.locationsPage("Bernal", 2);
+        assertEquals(HttpStatus.OK, httpResponse.getStatusCode());
+        assertEquals(locations, httpResponse.getBody());
+        assertEquals("Santa Clara", httpResponse.getHeaders().getFirst(NdjsonResponses.NEXT_AFTER_HEADER));
+    }
+
+    @Test
+    public void testLocationControllerLastLocationsPage() {
+        List<Location> locations = new ArrayList<>();
+        locations.add(LocationBuilder.aLocation().withName("Colon").build());
+        when(locationService.findPage(null, 10)).thenReturn(locations);
+        ResponseEntity<?> httpResponse = locationController.locationsPage(null, 10);
+        assertEquals(locations, httpResponse.getBody());
+        assertNull(httpResponse.getHeaders().getFirst(NdjsonResponses.NEXT_AFTER_HEADER));
+    }
 }
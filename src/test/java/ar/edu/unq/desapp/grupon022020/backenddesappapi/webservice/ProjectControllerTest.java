@@ -5,6 +5,7 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.LocationBui
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.ProjectBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.InvalidProjectOperationException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.ProjectSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.ProjectService;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -22,6 +23,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
@@ -36,18 +38,18 @@ public class ProjectControllerTest {
 
     @Test
     public void testProjectControllerAllProjectsStatus() {
-        List<Project> projects = new ArrayList<>();
-        projects.add(ProjectBuilder.aProject().withName("Conectando Santa Clara").build());
-        when(projectService.findAll()).thenReturn(projects);
+        List<ProjectSummary> projects = new ArrayList<>();
+        projects.add(mock(ProjectSummary.class));
+        when(projectService.findAllSummaries()).thenReturn(projects);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) projectController.allProjects();
         assertEquals(HttpStatus.OK, httpResponse.getStatusCode());
     }
 
     @Test
     public void testProjectControllerAllProjectsContent() {
-        List<Project> projects = new ArrayList<>();
-        projects.add(ProjectBuilder.aProject().withName("Conectando Santa Clara").build());
-        when(projectService.findAll()).thenReturn(projects);
+        List<ProjectSummary> projects = new ArrayList<>();
+        projects.add(mock(ProjectSummary.class));
+        when(projectService.findAllSummaries()).thenReturn(projects);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) projectController.allProjects();
         assertNotNull(httpResponse.getBody());
         assertEquals(projects, httpResponse.getBody());
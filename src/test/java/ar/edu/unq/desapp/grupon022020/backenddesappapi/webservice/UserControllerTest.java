@@ -4,6 +4,7 @@ import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.Donor;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.builder.DonorBuilder;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.DataNotFoundException;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.exceptions.LoginException;
+import ar.edu.unq.desapp.grupon022020.backenddesappapi.model.projections.DonorSummary;
 import ar.edu.unq.desapp.grupon022020.backenddesappapi.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
@@ -20,6 +21,7 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @RunWith(SpringRunner.class)
@@ -34,18 +36,18 @@ public class UserControllerTest {
 
     @Test
     public void testUserControllerAllDonorUsersStatus() {
-        List<Donor> donors = new ArrayList<>();
-        donors.add(DonorBuilder.aDonorUser().withNickname("juan123").build());
-        when(userService.findAll()).thenReturn(donors);
+        List<DonorSummary> donors = new ArrayList<>();
+        donors.add(mock(DonorSummary.class));
+        when(userService.findAllSummaries()).thenReturn(donors);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) userController.allDonorUsers();
         assertEquals(HttpStatus.OK, httpResponse.getStatusCode());
     }
 
     @Test
     public void testUserControllerAllDonorUsersContent() {
-        List<Donor> donors = new ArrayList<>();
-        donors.add(DonorBuilder.aDonorUser().withNickname("juan123").build());
-        when(userService.findAll()).thenReturn(donors);
+        List<DonorSummary> donors = new ArrayList<>();
+        donors.add(mock(DonorSummary.class));
+        when(userService.findAllSummaries()).thenReturn(donors);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) userController.allDonorUsers();
         assertNotNull(httpResponse.getBody());
         assertEquals(donors, httpResponse.getBody());
@@ -54,8 +56,8 @@ public class UserControllerTest {
     @Test
     public void testUserControllerGetDonorUserStatus() throws DataNotFoundException {
         String nickname = "maria456";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).build();
-        when(userService.findById(nickname)).thenReturn(donor);
+        DonorSummary donor = mock(DonorSummary.class);
+        when(userService.findSummaryById(nickname)).thenReturn(donor);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) userController.getDonorUser(nickname);
         assertEquals(HttpStatus.OK, httpResponse.getStatusCode());
     }
@@ -63,8 +65,8 @@ public class UserControllerTest {
     @Test
     public void testUserControllerGetDonorUserContent() throws DataNotFoundException {
         String nickname = "maria456";
-        Donor donor = DonorBuilder.aDonorUser().withNickname(nickname).build();
-        when(userService.findById(nickname)).thenReturn(donor);
+        DonorSummary donor = mock(DonorSummary.class);
+        when(userService.findSummaryById(nickname)).thenReturn(donor);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) userController.getDonorUser(nickname);
         assertNotNull(httpResponse.getBody());
         assertEquals(donor, httpResponse.getBody());
@@ -74,7 +76,7 @@ public class UserControllerTest {
     public void testUserControllerGetDonorUserException() throws DataNotFoundException {
         String nickname = "maria456";
         String message = "User " + nickname + " does not exists";
-        doThrow(new DataNotFoundException(message)).when(userService).findById(nickname);
+        doThrow(new DataNotFoundException(message)).when(userService).findSummaryById(nickname);
         ResponseEntity<String> httpResponse = (ResponseEntity<String>) userController.getDonorUser(nickname);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, httpResponse.getStatusCode());
         assertNotNull(httpResponse.getBody());